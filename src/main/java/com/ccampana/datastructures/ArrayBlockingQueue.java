@@ -1,86 +1,490 @@
 package com.ccampana.datastructures;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * <p>
- * ArrayBlockingQueue is a generic class that extends ArrayQueue {@link ArrayQueue}.
- * The objective of this data structure is to have a Queue implemented through a Linked com.ccampana.datastructures.List
- * {@link ArrayList},which has a limited size.
+ * ArrayBlockingQueue is a bounded {@link Queue} safe to be shared by any number of producer and
+ * consumer threads. The elements are kept in a ring buffer of fixed capacity, allocated once:
+ * the head and the tail move forward and wrap around, so neither enqueueing nor dequeueing ever
+ * shifts or copies elements.
+ * </p>
+ * <p>
+ * Every operation holds a single {@link ReentrantLock}. A producer that finds the queue full waits
+ * on the condition notFull and a consumer that finds it empty waits on the condition notEmpty;
+ * each enqueue signals one waiting consumer and each dequeue one waiting producer. The queue is
+ * therefore a point of backpressure: producers faster than the consumers are slowed down to their
+ * pace instead of growing the queue.
  * </p>
  * <p>
- * A Queue is a FILO (First-In Last-Out) type of data structure since
- * the element entered last is the first to be removed. One of its uses is a concurrent
- * application.
+ * Each insertion and removal comes in four flavours. {@link ArrayBlockingQueue#enqueue(E e)} and
+ * {@link ArrayBlockingQueue#dequeue()} throw when they cannot proceed,
+ * {@link ArrayBlockingQueue#offer(E e)} and {@link ArrayBlockingQueue#poll()} return
+ * false or null, {@link ArrayBlockingQueue#put(E e)} and {@link ArrayBlockingQueue#take()} wait
+ * as long as needed, and the timed offer and poll wait up to a timeout. Since null is the answer
+ * of an empty poll, null elements are not accepted.
  * </p>
  * <p>
- * The operations supported are all of those of the ArrayQueue since it extends.
- * Unless defined in the constructor, the default capacity is 20.
+ * Unless defined in the constructor, the capacity is 20 and the lock is not fair.
  * </p>
- *
+ * <ul>
+ * Supported operations:
+ * <li>{@link ArrayBlockingQueue#enqueue(E e)} - adds an element, throwing if the queue is full.</li>
+ * <li>{@link ArrayBlockingQueue#offer(E e)} - adds an element if there is room.</li>
+ * <li>{@link ArrayBlockingQueue#offer(E e, long timeout, TimeUnit unit)} - adds an element,
+ * waiting up to a timeout for room.</li>
+ * <li>{@link ArrayBlockingQueue#put(E e)} - adds an element, waiting for room.</li>
+ * <li>{@link ArrayBlockingQueue#enqueueAll(E[] elements)} - adds every element of an array, or
+ * none if they do not fit.</li>
+ * <li>{@link ArrayBlockingQueue#dequeue()} - removes the first element, throwing if the queue is
+ * empty.</li>
+ * <li>{@link ArrayBlockingQueue#poll()} - removes the first element, if there is one.</li>
+ * <li>{@link ArrayBlockingQueue#poll(long timeout, TimeUnit unit)} - removes the first element,
+ * waiting up to a timeout for one.</li>
+ * <li>{@link ArrayBlockingQueue#take()} - removes the first element, waiting for one.</li>
+ * <li>{@link ArrayBlockingQueue#dequeueBatch(E[] out)},
+ * {@link ArrayBlockingQueue#drainTo(Collection target, int maxElements)} - remove several
+ * elements at once, without waiting.</li>
+ * <li>{@link ArrayBlockingQueue#peek()} - retrieves but does not remove the first element.</li>
+ * <li>{@link ArrayBlockingQueue#size()} - Returns the number of elements.</li>
+ * <li>{@link ArrayBlockingQueue#remainingCapacity()} - Returns the number of free slots.</li>
+ * <li>{@link ArrayBlockingQueue#clear()} - removes every element, waking the waiting producers.</li>
+ * </ul>
  * <p>
  * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
  * <p>
  * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
- *
+ * </p>
  * @param <E> the generic type.
+ * @see Queue
  * @author Caike Salles Campana
  * @version 0.1
  */
-public class ArrayBlockingQueue<E> extends ArrayQueue<E> {
+public class ArrayBlockingQueue<E> implements Queue<E> {
     /**
-     * A constant that defines the default capacity of the ArrayQueue.
+     * A constant that defines the default capacity of the queue.
      */
     final static int DEFAULT_CAPACITY = 20;
+
+    /**
+     * The ring buffer. Its length is the capacity of the queue.
+     */
+    final Object[] items;
+    /**
+     * Slot of the next element to be dequeued.
+     */
+    int head;
+    /**
+     * Slot of the next element to be enqueued.
+     */
+    int tail;
+    /**
+     * The number of elements in the queue.
+     */
+    int count;
+    /**
+     * Guards every access to the buffer and the indices above.
+     */
+    final ReentrantLock lock;
     /**
-     * The capacity of the BlockingQueue.
+     * Waited on by consumers while the queue is empty.
      */
-    private int capacity;
+    private final Condition notEmpty;
+    /**
+     * Waited on by producers while the queue is full.
+     */
+    private final Condition notFull;
 
     /**
-     * The default constructor initializes all the variables,
-     * calls the default constructor of the class ArrayQueue and defines the capacity according
-     * to the constant DEFAULT_CAPACITY, which is 20.
-     *
-     * @see #DEFAULT_CAPACITY
+     * The default constructor, with the capacity {@link ArrayBlockingQueue#DEFAULT_CAPACITY} and
+     * a lock that is not fair.
      */
     public ArrayBlockingQueue() {
-        super();
-        capacity = DEFAULT_CAPACITY;
+        this(DEFAULT_CAPACITY);
     }
 
     /**
-     * This constructor allows for default capacity to be changed.
-     * It uses the parameter to set the capacity and also calls the default constructor.
-     *
-     * @param capacity The capacity of the Queue.
+     * This constructor allows for the default capacity to be changed.
+     * @param capacity The capacity of the queue.
+     * @throws IllegalArgumentException if the capacity is not positive.
      */
     public ArrayBlockingQueue(int capacity) {
-        this();
-        this.capacity = capacity;
+        this(capacity, false);
+    }
+
+    /**
+     * Constructor that also chooses the fairness of the lock. A fair lock hands itself to the
+     * threads in the order they asked for it, so no producer or consumer starves, at the cost of
+     * a lower throughput.
+     * @param capacity The capacity of the queue.
+     * @param fair whether the lock is fair.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public ArrayBlockingQueue(int capacity, boolean fair) {
+        if (capacity <= 0) throw new IllegalArgumentException();
+        items = new Object[capacity];
+        lock = new ReentrantLock(fair);
+        notEmpty = lock.newCondition();
+        notFull = lock.newCondition();
     }
 
     /**
-     * The method enqueue allows for an object to be added (enqueue) in the data structure.
-     * It checks for the capacity through the private method, checkCapacity. If the method
-     * returns a false, it throws an IllegalStateException.
-     * Otherwise, it adds the element to the Queue.
-     *
-     * @param e the element to be enqueue.
-     * @see #checkCapacity()
+     * Adds an element at the end of the queue, without waiting.
+     * @param e the element to be enqueued.
+     * @throws IllegalArgumentException if the element is null.
+     * @throws IllegalStateException if the queue is full.
      */
     @Override
-    public void enqueue(E e) {
-        if (!checkCapacity()) {
-            throw new IllegalStateException();
+    public void enqueue(E e) throws IllegalStateException {
+        if (!offer(e)) throw new IllegalStateException();
+    }
+
+    /**
+     * Adds an element at the end of the queue if there is room, without waiting.
+     * @param e the element to be enqueued.
+     * @return true if the element was added, false if the queue is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public boolean offer(E e) {
+        if (e == null) throw new IllegalArgumentException();
+        lock.lock();
+        try {
+            if (count == items.length) return false;
+            insert(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an element at the end of the queue, waiting up to a timeout for room.
+     * @param e the element to be enqueued.
+     * @param timeout how long to wait, in units of unit.
+     * @param unit the unit of the timeout.
+     * @return true if the element was added, false if the timeout elapsed first.
+     * @throws IllegalArgumentException if the element is null.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        if (e == null) throw new IllegalArgumentException();
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == items.length) {
+                if (nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            insert(e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an element at the end of the queue, waiting as long as needed for room.
+     * @param e the element to be enqueued.
+     * @throws IllegalArgumentException if the element is null.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void put(E e) throws InterruptedException {
+        if (e == null) throw new IllegalArgumentException();
+        lock.lockInterruptibly();
+        try {
+            while (count == items.length) notFull.await();
+            insert(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds every element of an array at the end of the queue, in order, holding the lock once for
+     * the whole batch. Either every element is added or, if they do not fit, none is.
+     * @param elements elements to be enqueued.
+     * @throws IllegalArgumentException if an element is null.
+     * @throws IllegalStateException if the remaining capacity is smaller than the batch.
+     */
+    @Override
+    public void enqueueAll(E[] elements) throws IllegalStateException {
+        for (E e : elements) {
+            if (e == null) throw new IllegalArgumentException();
+        }
+        lock.lock();
+        try {
+            if (elements.length > items.length - count) throw new IllegalStateException();
+            int firstPart = Math.min(elements.length, items.length - tail);
+            System.arraycopy(elements, 0, items, tail, firstPart);
+            System.arraycopy(elements, firstPart, items, 0, elements.length - firstPart);
+            tail = wrap(tail + elements.length);
+            count += elements.length;
+            if (elements.length > 0) notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, without waiting.
+     * @return The element removed.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    public E dequeue() throws NoSuchElementException {
+        E element = poll();
+        if (element == null) throw new NoSuchElementException();
+        return element;
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, if there is one, without waiting.
+     * @return The element removed, or null if the queue is empty.
+     */
+    public E poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, waiting up to a timeout for one.
+     * @param timeout how long to wait, in units of unit.
+     * @param unit the unit of the timeout.
+     * @return The element removed, or null if the timeout elapsed first.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return extract();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, waiting as long as needed for one.
+     * @return The element removed.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) notEmpty.await();
+            return extract();
+        } finally {
+            lock.unlock();
         }
-        super.enqueue(e);
     }
 
     /**
-     * A boolean indicating whether there is remaining capacity in the Queue.
-     *
-     * @return A boolean indicating whether there is still remaining capacity in the Queue.
+     * Removes elements from the front of the queue into an array, from position 0, until the array
+     * is full or the queue is empty, holding the lock once and without waiting.
+     * @param out the array receiving the elements.
+     * @return the number of elements removed.
+     */
+    @Override
+    public int dequeueBatch(E[] out) {
+        lock.lock();
+        try {
+            int taken = Math.min(out.length, count);
+            int firstPart = Math.min(taken, items.length - head);
+            System.arraycopy(items, head, out, 0, firstPart);
+            System.arraycopy(items, 0, out, firstPart, taken - firstPart);
+            release(taken);
+            return taken;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves up to a number of elements from the front of the queue, in order, into a collection,
+     * holding the lock once and without waiting. Should the collection throw, the elements it
+     * accepted are removed from the queue and the others stay.
+     * @param target the collection receiving the elements.
+     * @param maxElements the maximum number of elements to be moved.
+     * @return the number of elements moved.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        lock.lock();
+        int moved = 0;
+        try {
+            int limit = Math.min(maxElements, count);
+            for (int slot = head; moved < limit; moved++, slot = wrap(slot + 1)) {
+                target.add((E) items[slot]);
+            }
+            return moved;
+        } finally {
+            release(moved);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves but does not remove the first element of the queue.
+     * @return The first element.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E peek() throws NoSuchElementException {
+        lock.lock();
+        try {
+            if (count == 0) throw new NoSuchElementException();
+            return (E) items[head];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns current size of the queue.
+     * @return the size of the queue.
+     */
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * In case size is equal to 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the queue is empty or not.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     * @return the number of elements the queue holds when full.
+     */
+    public int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Returns how many elements can still be added without waiting.
+     * @return the capacity minus the size.
+     */
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return items.length - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every element and wakes every producer waiting for room.
+     */
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            for (int i = 0, slot = head; i < count; i++) {
+                items[slot] = null;
+                if (++slot == items.length) slot = 0;
+            }
+            head = tail = count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a string with the elements, from the first to the last.
+     * @return A string containing all the elements currently in the queue.
+     */
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[");
+            for (int i = 0, slot = head; i < count; i++) {
+                sb.append(items[slot]).append(" ");
+                if (++slot == items.length) slot = 0;
+            }
+            sb.append("]");
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Places an element at the tail and signals a consumer. Must hold the lock, with room left.
+     * @param e the element to be enqueued.
+     */
+    private void insert(E e) {
+        items[tail] = e;
+        if (++tail == items.length) tail = 0;
+        ++count;
+        notEmpty.signal();
+    }
+
+    /**
+     * Removes the elements at the head once they have been handed out and signals the producers.
+     * Must hold the lock.
+     * @param taken number of elements to be removed, at most the size.
+     */
+    private void release(int taken) {
+        if (taken <= 0) return;
+        int firstPart = Math.min(taken, items.length - head);
+        Arrays.fill(items, head, head + firstPart, null);
+        Arrays.fill(items, 0, taken - firstPart, null);
+        head = wrap(head + taken);
+        count -= taken;
+        notFull.signalAll();
+    }
+
+    /**
+     * Brings a position past the end of the buffer back to its start.
+     * @param slot a position, less than twice the capacity.
+     * @return the position within the buffer.
+     */
+    private int wrap(int slot) {
+        return slot >= items.length ? slot - items.length : slot;
+    }
+
+    /**
+     * Takes the element at the head and signals a producer. Must hold the lock, with the queue
+     * not empty.
+     * @return the element removed.
      */
-    private boolean checkCapacity() {
-        return (super.size() < capacity);
+    @SuppressWarnings({"unchecked"})
+    private E extract() {
+        E element = (E) items[head];
+        items[head] = null;
+        if (++head == items.length) head = 0;
+        --count;
+        notFull.signal();
+        return element;
     }
 }
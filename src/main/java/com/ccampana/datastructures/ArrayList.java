@@ -1,7 +1,14 @@
 package com.ccampana.datastructures;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * <p>
@@ -14,7 +21,25 @@ import java.util.NoSuchElementException;
  * com.ccampana.datastructures.List.
  * </p>
  * <p>
- * Its initial capacity is 10 as well as its growth rate is 1.5.
+ * Its initial capacity is 10 as well as its growth rate is 1.5, unless a different initial
+ * capacity and {@link GrowthPolicy} are given to
+ * {@link ArrayList#ArrayList(int, GrowthPolicy, boolean)}. A list can also be sized ahead with
+ * {@link ArrayList#ensureCapacity(int)}, and {@link ArrayList#addAll(E[] elements)} grows the array
+ * at most once for a whole batch of elements.
+ * </p>
+ * <p>
+ * By default, removing an element leaves a hole in its place. A list created with
+ * {@link ArrayList#ArrayList(boolean)} in compacting mode shifts the following elements back
+ * instead, so its elements always fill the start of the array: removing the last element takes
+ * constant time, and searches stop at the size instead of scanning the whole capacity.
+ * {@link ArrayList#removeIf(Predicate)} and {@link ArrayList#trimToSize()} close the holes in
+ * either mode.
+ * </p>
+ * <p>
+ * {@link ArrayList#sort(Comparator)} sorts the list with a merge sort whose halves run in
+ * parallel on the common fork-join pool. Afterwards the list remembers its order until an
+ * addition breaks it: {@link ArrayList#binarySearch(E element)} becomes available and
+ * {@link ArrayList#indexOf(E element)} switches from a linear scan to a binary search.
  * </p>
  * <p>
  * This project is licensed under Creative Commons Attribution 4.0 International License.
@@ -36,6 +61,14 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
      * Growth rate of the array, as it grows. Default value is 1.5
      */
     final private static double GROWTH_FACTOR = 1.5;
+    /**
+     * The growth policy used unless another one is given to the constructor.
+     */
+    final private static GrowthPolicy DEFAULT_GROWTH = GrowthPolicy.factor(GROWTH_FACTOR);
+    /**
+     * Ranges smaller than this are sorted sequentially by {@link ArrayList#sort(Comparator)}.
+     */
+    final static int SEQUENTIAL_SORT_THRESHOLD = 1 << 13;
 
     /**
      * Used in the method indexOf to denote an element that is not present in the list.
@@ -54,6 +87,22 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
      * The underlining array used to store the objects added to the main.com.ccampana.datastructures.ArrayList.
      */
     E[] array;
+    /**
+     * Whether removals shift the following elements back instead of leaving holes.
+     */
+    final boolean compacting;
+    /**
+     * The comparator the elements are sorted by, or null if the list is not known to be sorted.
+     */
+    Comparator<? super E> sortedBy;
+    /**
+     * The capacity of the array after {@link ArrayList#clear()}.
+     */
+    final int initialCapacity;
+    /**
+     * Decides the capacity of the array each time it grows.
+     */
+    final GrowthPolicy growthPolicy;
 
 
     /**
@@ -64,21 +113,58 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
      * @see ArrayList#clear()
      */
     public ArrayList() {
+        this(false);
+    }
+
+    /**
+     * Constructor that chooses whether removals compact the array. In compacting mode, every
+     * removal shifts the following elements back with a single array copy, so the list never
+     * holds holes.
+     *
+     * @param compacting true for the compacting mode.
+     */
+    public ArrayList(boolean compacting) {
+        this(INITIAL_CAPACITY, DEFAULT_GROWTH, compacting);
+    }
+
+    /**
+     * Constructor that chooses the initial capacity and how the array grows.
+     *
+     * @param initialCapacity the capacity of the array, zero or greater.
+     * @param growthPolicy decides the capacity of the array each time it grows.
+     */
+    public ArrayList(int initialCapacity, GrowthPolicy growthPolicy) {
+        this(initialCapacity, growthPolicy, false);
+    }
+
+    /**
+     * Constructor that chooses the initial capacity, how the array grows and whether removals
+     * compact the array. Pre-sizing a list that will receive a known number of elements avoids
+     * every reallocation.
+     *
+     * @param initialCapacity the capacity of the array, zero or greater.
+     * @param growthPolicy decides the capacity of the array each time it grows.
+     * @param compacting true for the compacting mode.
+     * @throws IllegalArgumentException if the initial capacity is negative.
+     */
+    public ArrayList(int initialCapacity, GrowthPolicy growthPolicy, boolean compacting) {
+        if (initialCapacity < 0) throw new IllegalArgumentException();
+        this.initialCapacity = initialCapacity;
+        this.growthPolicy = growthPolicy;
+        this.compacting = compacting;
         clear();
     }
 
     /**
      * Constructor that adds an array of elements to the main.com.ccampana.datastructures.ArrayList using the method
-     * {@link ArrayList#add(E element)}.
+     * {@link ArrayList#addAll(E[] elements)}, so the array is sized once.
      *
      * @param elements an array of elements to be added into the main.com.ccampana.datastructures.ArrayList.
-     * @see ArrayList#add(E element)
+     * @see ArrayList#addAll(E[] elements)
      */
     public ArrayList(E[] elements) {
-        clear();
-        for (E element : elements) {
-            add(element);
-        }
+        this(Math.max(INITIAL_CAPACITY, elements.length), DEFAULT_GROWTH, false);
+        addAll(elements);
     }
 
     /**
@@ -90,6 +176,7 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     @Override
     public void add(E element) {
         checkGrowth();
+        if (sortedBy != null && size > 0 && sortedBy.compare(array[size - 1], element) > 0) sortedBy = null;
         array[size] = element;
         ++size;
     }
@@ -97,7 +184,8 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     /**
      * Add an element to a specified position in the array. If the index is greater than the
      * current array capacity, then it throws an IndexOutOfBoundsException, since it is impossible
-     * to add an element at such position.
+     * to add an element at such position. In compacting mode, the index must be within the size,
+     * and the elements from the index on are shifted forward to make room.
      *
      * @param index the position in the array that the element will be added
      * @param element    the element to be added
@@ -105,6 +193,15 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
      */
     @SuppressWarnings({"unchecked"})
     public void add(int index, E element) throws IndexOutOfBoundsException {
+        sortedBy = null;
+        if (compacting) {
+            if (index > size || index < 0) throw new IndexOutOfBoundsException();
+            checkGrowth();
+            System.arraycopy(array, index, array, index + 1, size - index);
+            array[index] = element;
+            ++size;
+            return;
+        }
         if (index > currentArrayCapacity || index < 0) {
             throw new IndexOutOfBoundsException();
         }
@@ -162,15 +259,77 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     /**
      * This method grows the array if called. It uses an array copy functionality to copy the old
      * elements to the new and increased array.
-     * The size of the new array is defined by the current capacity times the growth factor.
+     * The size of the new array is defined by the growth policy, and is always at least one more
+     * than the current capacity, so that lists of capacity 0 or 1 grow too.
      */
-    @SuppressWarnings({"unchecked"})
     public void grow() {
+        grow(currentArrayCapacity + 1);
+    }
+
+    /**
+     * Makes sure the array can hold a number of elements without growing again. If it has to
+     * grow, it grows once, to the larger of the requested capacity and the one given by the
+     * growth policy.
+     *
+     * @param minimumCapacity the number of elements the array must be able to hold.
+     */
+    public void ensureCapacity(int minimumCapacity) {
+        if (minimumCapacity > currentArrayCapacity) grow(minimumCapacity);
+    }
+
+    /**
+     * Grows the array to at least a given capacity, copying the elements with a single
+     * array copy.
+     *
+     * @param minimumCapacity the capacity the array must reach.
+     */
+    @SuppressWarnings({"unchecked"})
+    private void grow(int minimumCapacity) {
         E[] arrayOld = array;
-        currentArrayCapacity = (int) (currentArrayCapacity * GROWTH_FACTOR);
+        currentArrayCapacity = Math.max(minimumCapacity, growthPolicy.nextCapacity(currentArrayCapacity));
         array = (E[]) new Object[currentArrayCapacity];
-        for (int i = 0; i < arrayOld.length; i++) array[i] = arrayOld[i];
+        System.arraycopy(arrayOld, 0, array, 0, arrayOld.length);
+    }
 
+    /**
+     * Adds every element of an array at the end of the list. The array of the list grows at most
+     * once, and the elements are copied with a single array copy.
+     *
+     * @param elements elements to be added.
+     */
+    public void addAll(E[] elements) {
+        addAll(elements, elements.length);
+    }
+
+    /**
+     * Adds every element of another list at the end of this one. A compacting ArrayList is copied
+     * straight from its array; other lists, including an ArrayList with holes, go through
+     * {@link List#toArray()}, which leaves the holes out.
+     *
+     * @param elements the list whose elements are added.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void addAll(List<? extends E> elements) {
+        if (elements instanceof ArrayList && ((ArrayList<? extends E>) elements).compacting) {
+            ArrayList<? extends E> other = (ArrayList<? extends E>) elements;
+            addAll(other.array, other.size);
+        } else {
+            addAll(elements.toArray());
+        }
+    }
+
+    /**
+     * Adds the first elements of an array at the end of the list.
+     *
+     * @param elements elements to be added.
+     * @param count number of elements to be added.
+     */
+    private void addAll(E[] elements, int count) {
+        if (count == 0) return;
+        ensureCapacity(size + count);
+        System.arraycopy(elements, 0, array, size, count);
+        size += count;
+        sortedBy = null;
     }
 
 
@@ -187,8 +346,85 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
         if (indexElement == NOT_FOUND) {
             throw new NoSuchElementException();
         }
-        array[indexOf(element)] = null;
+        removeAt(indexElement);
+    }
+
+    /**
+     * Removes the element at an index. In compacting mode, the following elements are shifted
+     * back; otherwise, a hole is left in its place.
+     *
+     * @param index the position of the element to be removed.
+     * @return the element removed.
+     * @throws NoSuchElementException if there is no element at the index.
+     */
+    public E removeAt(int index) throws NoSuchElementException {
+        int limit = compacting ? size : currentArrayCapacity;
+        if (index < 0 || index >= limit || (!compacting && array[index] == null)) {
+            throw new NoSuchElementException();
+        }
+        E element = array[index];
+        if (compacting) {
+            System.arraycopy(array, index + 1, array, index, size - index - 1);
+            array[size - 1] = null;
+        } else {
+            array[index] = null;
+            sortedBy = null;
+        }
         --size;
+        return element;
+    }
+
+    /**
+     * Removes the last element. In compacting mode it takes constant time; otherwise, the array
+     * is scanned back from its end for the last element that is not a hole.
+     *
+     * @return the element removed.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public E removeLast() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        int index = size - 1;
+        if (!compacting) {
+            index = currentArrayCapacity - 1;
+            while (array[index] == null) index--;
+        }
+        E element = array[index];
+        array[index] = null;
+        --size;
+        return element;
+    }
+
+    /**
+     * Removes every element matching a predicate in a single pass, moving each remaining element
+     * straight to its final position. The holes left by earlier removals are closed too.
+     *
+     * @param filter returns true for the elements to be removed.
+     * @return the number of elements removed.
+     */
+    public int removeIf(Predicate<? super E> filter) {
+        int before = size;
+        int kept = 0;
+        for (int i = 0; i < currentArrayCapacity; i++) {
+            E element = array[i];
+            if (element == null || filter.test(element)) continue;
+            array[kept++] = element;
+        }
+        for (int i = kept; i < currentArrayCapacity; i++) array[i] = null;
+        size = kept;
+        return before - size;
+    }
+
+    /**
+     * Closes the holes of the array, then shrinks it to the size of the list, so that a list that
+     * once held many elements stops holding on to their memory.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void trimToSize() {
+        if (!compacting) removeIf(element -> false);
+        E[] arrayOld = array;
+        currentArrayCapacity = Math.max(size, 1);
+        array = (E[]) new Object[currentArrayCapacity];
+        System.arraycopy(arrayOld, 0, array, 0, size);
     }
 
 
@@ -198,15 +434,82 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     @Override
     @SuppressWarnings({"unchecked"})
     public void clear() {
-        array = (E[]) new Object[INITIAL_CAPACITY];
+        array = (E[]) new Object[initialCapacity];
         size = 0;
-        currentArrayCapacity = INITIAL_CAPACITY;
+        currentArrayCapacity = initialCapacity;
+        sortedBy = null;
+    }
+
+    /**
+     * Sorts the list in the order of a comparator. The holes are closed first, then the array is
+     * split in halves that are sorted in parallel on the common fork-join pool and merged back;
+     * ranges below {@link ArrayList#SEQUENTIAL_SORT_THRESHOLD} elements are sorted sequentially.
+     * The sort is stable. The list stays marked as sorted until an element is added out of order,
+     * added at an index, or removed leaving a hole.
+     *
+     * @param comparator the order of the elements.
+     */
+    public void sort(Comparator<? super E> comparator) {
+        if (!compacting) removeIf(element -> false);
+        if (size < SEQUENTIAL_SORT_THRESHOLD) {
+            Arrays.sort(array, 0, size, comparator);
+        } else {
+            Object[] buffer = new Object[size];
+            ForkJoinPool.commonPool().invoke(new MergeSort<>(array, buffer, 0, size, comparator));
+        }
+        sortedBy = comparator;
+    }
+
+    /**
+     * Whether the list is known to be sorted by the comparator of the last
+     * {@link ArrayList#sort(Comparator)}.
+     *
+     * @return true if the list is sorted.
+     */
+    public boolean isSorted() {
+        return sortedBy != null;
+    }
+
+    /**
+     * Searches a sorted list for an element, comparing elements with the comparator it was
+     * sorted by. It returns the index of the first element equal to the given one under the
+     * comparator or, if there is none, the insertion point encoded as
+     * {@code -(insertion point) - 1}, like {@link Arrays#binarySearch(Object[], Object)}.
+     *
+     * @param element element to be searched.
+     * @return the index of the element, or a negative value encoding where it would be inserted.
+     * @throws IllegalStateException if the list is not sorted.
+     */
+    public int binarySearch(E element) {
+        if (sortedBy == null) throw new IllegalStateException();
+        int low = lowerBound(element);
+        if (low < size && sortedBy.compare(array[low], element) == 0) return low;
+        return -low - 1;
+    }
+
+    /**
+     * Finds the first index whose element is not smaller than the given one under the sort
+     * comparator.
+     *
+     * @param element element to be searched.
+     * @return an index between 0 and the size.
+     */
+    private int lowerBound(E element) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedBy.compare(array[middle], element) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
     }
 
     /**
      * Finds the index of an element, searching through the array for such element and recoding
      * its index. If it does not found, it returns -1 defined in the
-     * constant {@link ArrayList#NOT_FOUND}.
+     * constant {@link ArrayList#NOT_FOUND}. When the list is sorted, a binary search finds the
+     * run of elements that compare equal to it, and only that run is checked with equals.
      *
      * @param element element to be searched
      * @return an int containing the index, if not found -1.
@@ -214,7 +517,14 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     @Override
     public int indexOf(E element) {
         if (element == null) return NOT_FOUND;
-        for (int i = 0; i < array.length; i++) {
+        if (sortedBy != null) {
+            for (int i = lowerBound(element); i < size && sortedBy.compare(array[i], element) == 0; i++) {
+                if (element.equals(array[i])) return i;
+            }
+            return NOT_FOUND;
+        }
+        int limit = compacting ? size : array.length;
+        for (int i = 0; i < limit; i++) {
             if (array[i] != null && array[i].equals(element)) {
                 return i;
             }
@@ -224,7 +534,8 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     }
 
     /**
-     * Transforms the Arraylist into a simple array and returns it.
+     * Transforms the Arraylist into a simple array and returns it. The holes left by removals are
+     * skipped, so the array holds exactly the elements of the list, in order.
      *
      * @return An array representing the arraylist
      */
@@ -232,7 +543,14 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     @SuppressWarnings({"unchecked"})
     public E[] toArray() {
         E[] newArray = (E[]) new Object[size()];
-        for (int i = 0; i < newArray.length; i++) newArray[i] = array[i];
+        if (compacting) {
+            System.arraycopy(array, 0, newArray, 0, size);
+            return newArray;
+        }
+        int count = 0;
+        for (int i = 0; i < currentArrayCapacity && count < newArray.length; i++) {
+            if (array[i] != null) newArray[count++] = array[i];
+        }
         return newArray;
     }
 
@@ -292,4 +610,133 @@ public class ArrayList<E> implements List<E>, Iterable<E> {
     public Iterator<E> iterator() {
         return new ListIterator<E>(this);
     }
+
+    /**
+     * Returns a spliterator that reads the underlining array directly and splits by halving its
+     * range, so a parallel stream spreads the list over the cores without copying it. In
+     * compacting mode its size is exact; otherwise the holes are skipped and the size of each half
+     * is only estimated. The list must not be modified while it is used.
+     *
+     * @return a spliterator over the elements.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ArraySpliterator<>(array, 0, compacting ? size : currentArrayCapacity, size, compacting);
+    }
+
+    /**
+     * Sorts a range of an array by sorting its halves in parallel and merging them through a
+     * buffer of the same length.
+     *
+     * @param <E> The type of the elements.
+     */
+    @SuppressWarnings({"serial"})
+    static class MergeSort<E> extends RecursiveAction {
+        final E[] array;
+        final Object[] buffer;
+        final int from;
+        final int to;
+        final Comparator<? super E> comparator;
+
+        MergeSort(E[] array, Object[] buffer, int from, int to, Comparator<? super E> comparator) {
+            this.array = array;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        protected void compute() {
+            if (to - from < SEQUENTIAL_SORT_THRESHOLD) {
+                Arrays.sort(array, from, to, comparator);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MergeSort<>(array, buffer, from, middle, comparator),
+                    new MergeSort<>(array, buffer, middle, to, comparator));
+            if (comparator.compare(array[middle - 1], array[middle]) <= 0) return;
+            System.arraycopy(array, from, buffer, from, to - from);
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < middle && comparator.compare((E) buffer[left], (E) buffer[right]) <= 0)) {
+                    array[i] = (E) buffer[left++];
+                } else {
+                    array[i] = (E) buffer[right++];
+                }
+            }
+        }
+    }
+
+    /**
+     * Spliterator over a range of the underlining array.
+     *
+     * @param <E> The type of the elements.
+     */
+    static class ArraySpliterator<E> implements Spliterator<E> {
+        final E[] array;
+        final int fence;
+        final boolean exact;
+        int index;
+        long estimate;
+
+        /**
+         * @param array the underlining array.
+         * @param index the first index of the range.
+         * @param fence one past the last index of the range.
+         * @param estimate the number of elements in the range, exact if there are no holes.
+         * @param exact true if the range holds no holes, so nulls are elements.
+         */
+        ArraySpliterator(E[] array, int index, int fence, long estimate, boolean exact) {
+            this.array = array;
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.exact = exact;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            while (index < fence) {
+                E element = array[index++];
+                if (exact || element != null) {
+                    action.accept(element);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            for (int i = index; i < fence; i++) {
+                E element = array[i];
+                if (exact || element != null) action.accept(element);
+            }
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (middle <= index) return null;
+            long lowerEstimate = exact ? middle - index : estimate >>> 1;
+            Spliterator<E> lower = new ArraySpliterator<>(array, index, middle, lowerEstimate, exact);
+            estimate = exact ? fence - middle : estimate - lowerEstimate;
+            index = middle;
+            return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+            return exact ? fence - index : estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | (exact ? Spliterator.SIZED | Spliterator.SUBSIZED : 0);
+        }
+    }
 }
@@ -1,23 +1,39 @@
 package com.ccampana.datastructures;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 /**
  * <p>
- * ArrayQueue is an implementation of the queue through an array list.
- * The queue is a data structure that provides a FILO (First-In, Last-Out);
+ * ArrayQueue is an implementation of the queue through a circular array.
+ * The queue is a data structure that provides a FIFO (First-In, First-Out);
  * elements are placed in the last position and removed from the first position.
  * </p>
  * <p>
- * This class implementation uses an array list as a supporting data structure.
- * There are two constructors. The default only initializes the variable size and the array list.
+ * The elements are kept in an array used as a ring: the index head points to the first element
+ * and the elements follow it, wrapping around to position 0 at the end of the array. Enqueueing
+ * writes past the last element and dequeueing moves the head forward, so neither shifts the
+ * other elements and the queue never has holes; both take constant time however long the queue
+ * has been running. Only when the array is full is it replaced by a larger one, in which the
+ * elements are copied unwrapped, from position 0, so enqueue is constant time amortized.
+ * </p>
+ * <p>
+ * There are two constructors. The default only initializes the array.
  * Whereas the other allows for the input of an array containing objects to be added to the queue.
+ * Its initial capacity is 10 as well as its growth rate is 1.5.
  * </p>
  * <p>
  * The supported operations are:
  * <ul>
  * <li>{@link ArrayQueue#enqueue(E e)} - Adds an element to the end of the queue.</li>
- * <li>{@link ArrayQueue#dequeue()} - Retrieves and removes the element at position 0.</li>
+ * <li>{@link ArrayQueue#enqueueAll(E[] elements)} - Adds every element of an array, growing the
+ * array at most once.</li>
+ * <li>{@link ArrayQueue#dequeue()} - Retrieves and removes the element in front of the queue.</li>
+ * <li>{@link ArrayQueue#dequeueBatch(E[] out)} - Removes elements in front of the queue into an
+ * array.</li>
+ * <li>{@link ArrayQueue#drainTo(Collection target, int maxElements)} - Moves elements in front of
+ * the queue into a collection.</li>
  * <li>{@link ArrayQueue#peek()} - Retrieves but does not remove an element in front of the queue.</li>
  * <li>{@link ArrayQueue#size()} - Returns the size of the queue.</li>
  * <li>{@link ArrayQueue#isEmpty()} - Checks to see if the queue is empty.</li>
@@ -31,16 +47,28 @@ import java.util.NoSuchElementException;
  * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
  * </p>
  * @param <E> The type of the element to be added to the queue.
- * @see ArrayList
  * @see Queue
  * @author Caike Salles Campana
  * @version 0.1
  */
 public class ArrayQueue<E> implements Queue<E> {
     /**
-     * The underlining array list to support the queue implementation.
+     * Initial Capacity of the array. Default value is 10.
+     */
+    final static int INITIAL_CAPACITY = 10;
+    /**
+     * Growth rate of the array, as it grows. Default value is 1.5
+     */
+    final static double GROWTH_FACTOR = 1.5;
+
+    /**
+     * The circular array supporting the queue.
+     */
+    Object[] array;
+    /**
+     * The position of the first element.
      */
-    ArrayList<E> queue;
+    int head;
     /**
      * The size of the queue.
      */
@@ -50,60 +78,113 @@ public class ArrayQueue<E> implements Queue<E> {
      * Default constructor, it initializes all the variables.
      */
     public ArrayQueue() {
-        queue = new ArrayList<>();
-        size = 0;
+        clear();
     }
 
     /**
      * This overloaded constructor allows for the enqueue of an array of elements as part of its
-     * initialization. It also calls the default constructor.
+     * initialization. The array is copied at once, with the first element in front of the queue.
      * @param elements array of elements of type E to be enqueued.
      */
     public ArrayQueue(E[] elements) {
-        this();
-        for (E e : elements) {
-            enqueue(e);
-        }
+        array = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, elements.length), Object[].class);
+        head = 0;
+        size = elements.length;
     }
 
     /**
-     * Enqueue allows for the addition of elements to the queue. It adds to the last position.
+     * Enqueue allows for the addition of elements to the queue. It adds to the last position,
+     * growing the array if it is full.
      * @param e the element to be enqueued. Must be of type E.
      */
     @Override
     public void enqueue(E e) {
+        if (size == array.length) grow(size + 1);
+        array[slot(size)] = e;
         ++size;
-        queue.add(queue.size(), e);
     }
 
     /**
-     * Dequeue retrieves and removes an element from the queue. It is always the element at position
-     * 0. In case it is empty, it throws the exception {@link NoSuchElementException}.
+     * Adds every element of an array to the end of the queue. The array grows at most once, and
+     * the elements are copied in at most two copies: up to the end of the array, then from
+     * position 0.
+     * @param elements elements to be enqueued.
+     */
+    @Override
+    public void enqueueAll(E[] elements) {
+        if (size + elements.length > array.length) grow(size + elements.length);
+        int tail = slot(size);
+        int firstPart = Math.min(elements.length, array.length - tail);
+        System.arraycopy(elements, 0, array, tail, firstPart);
+        System.arraycopy(elements, firstPart, array, 0, elements.length - firstPart);
+        size += elements.length;
+    }
+
+    /**
+     * Dequeue retrieves and removes the element in front of the queue. In case it is empty, it
+     * throws the exception {@link NoSuchElementException}.
      * @return The element removed.
      */
     @Override
+    @SuppressWarnings({"unchecked"})
     public E dequeue() {
         if (isEmpty()) {
             throw new NoSuchElementException();
-
-        }
-        int i = 0;
-        while (queue.get(i) == null) {
-            ++i;
         }
-        E dequeueElement = queue.get(i);
-        queue.remove(dequeueElement);
+        E dequeueElement = (E) array[head];
+        array[head] = null;
+        head = slot(1);
         --size;
         return dequeueElement;
     }
 
     /**
-     * Peek allows for the retrieval without removal of the first element in the array list.
-     * @return The element in position 0.
+     * Removes elements in front of the queue into an array, from position 0, until the array is
+     * full or the queue is empty. The elements are copied in at most two copies and the head moves
+     * once.
+     * @param out the array receiving the elements.
+     * @return the number of elements removed.
+     */
+    @Override
+    public int dequeueBatch(E[] out) {
+        int count = Math.min(out.length, size);
+        int firstPart = Math.min(count, array.length - head);
+        System.arraycopy(array, head, out, 0, firstPart);
+        System.arraycopy(array, 0, out, firstPart, count - firstPart);
+        release(count);
+        return count;
+    }
+
+    /**
+     * Moves up to a number of elements in front of the queue, in order, into a collection. The
+     * head moves once, after every element has been added.
+     * @param target the collection receiving the elements.
+     * @param maxElements the maximum number of elements to be moved.
+     * @return the number of elements moved.
      */
     @Override
+    @SuppressWarnings({"unchecked"})
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int count = Math.max(0, Math.min(maxElements, size));
+        for (int i = 0; i < count; i++) {
+            target.add((E) array[slot(i)]);
+        }
+        release(count);
+        return count;
+    }
+
+    /**
+     * Peek allows for the retrieval without removal of the element in front of the queue.
+     * In case it is empty, it throws the exception {@link NoSuchElementException}.
+     * @return The element in front of the queue.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
     public E peek() {
-        return queue.get(0);
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return (E) array[head];
     }
 
     /**
@@ -125,19 +206,67 @@ public class ArrayQueue<E> implements Queue<E> {
     }
 
     /**
-     * Clears the queue through a call to the  {@link ArrayList#clear()} method.
+     * Clears the queue, keeping a new array of the initial capacity.
      */
     @Override
     public void clear() {
-        queue.clear();
+        array = new Object[INITIAL_CAPACITY];
+        head = 0;
+        size = 0;
     }
 
     /**
-     * Overrides the toString to provide a sensible return uses the array list implementation.
+     * Overrides the toString to provide a sensible return, from the first to the last element.
      * @return A string containing all the elements currently in the queue.
      */
     @Override
     public String toString() {
-        return queue.toString();
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) {
+            sb.append(array[slot(i)]).append(" ");
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the position of the element at a distance from the head, wrapping around the end
+     * of the array.
+     * @param offset the distance from the head, at most the length of the array.
+     * @return the position in the array.
+     */
+    int slot(int offset) {
+        int slot = head + offset;
+        return slot >= array.length ? slot - array.length : slot;
+    }
+
+    /**
+     * Removes the elements in front of the queue once they have been handed out, clearing their
+     * positions so they can be garbage collected, and moving the head past them.
+     * @param count number of elements to be removed.
+     */
+    private void release(int count) {
+        int firstPart = Math.min(count, array.length - head);
+        Arrays.fill(array, head, head + firstPart, null);
+        Arrays.fill(array, 0, count - firstPart, null);
+        head = slot(count);
+        size -= count;
+    }
+
+    /**
+     * Replaces the array by one larger by the growth factor, or more if needed, copying the elements in order from
+     * position 0, in at most two copies: from the head to the end of the array, then the part that
+     * wrapped around.
+     * @param minimumCapacity the capacity the array must reach.
+     */
+    private void grow(int minimumCapacity) {
+        int capacity = Math.max(minimumCapacity, (int) (array.length * GROWTH_FACTOR) + 1);
+        Object[] grown = new Object[Math.max(INITIAL_CAPACITY, capacity)];
+        int firstPart = Math.min(size, array.length - head);
+        System.arraycopy(array, head, grown, 0, firstPart);
+        System.arraycopy(array, 0, grown, firstPart, size - firstPart);
+        array = grown;
+        head = 0;
     }
 }
@@ -0,0 +1,314 @@
+package com.ccampana.datastructures;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>
+ * BigArrayList is a list indexed by long, able to hold more than 2^31 elements. Instead of one
+ * array, the elements are kept in chunks of a fixed power-of-two size, referenced by a directory.
+ * Appending to a full list allocates one more chunk and never copies the elements already added,
+ * so there is no copy pause and no transient peak of memory as the list grows; only the directory,
+ * which holds one reference per chunk, is copied when it fills up.
+ * </p>
+ * <p>
+ * Random access remains constant time: the high bits of an index select the chunk and the low
+ * bits the position within it.
+ * </p>
+ * <p>
+ * The default chunk size is 2^16 elements.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link BigArrayList#add(E element)} - adds an element at the end of the list.</li>
+ * <li>{@link BigArrayList#get(long index)} - returns the element at an index.</li>
+ * <li>{@link BigArrayList#set(long index, E element)} - replaces the element at an index.</li>
+ * <li>{@link BigArrayList#removeLast()} - removes the last element, releasing empty chunks.</li>
+ * <li>{@link BigArrayList#indexOf(E element)} - returns the index of an element.</li>
+ * <li>{@link BigArrayList#clear()} - removes every element.</li>
+ * <li>{@link BigArrayList#size()} - Returns the number of elements.</li>
+ * <li>{@link BigArrayList#iterator()}, {@link BigArrayList#spliterator()},
+ * {@link BigArrayList#stream()}, {@link BigArrayList#parallelStream()} - traversals.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see ArrayList
+ * @param <E> The type of the element to be added to the list.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class BigArrayList<E> implements Iterable<E> {
+    /**
+     * Default number of elements of each chunk.
+     */
+    final static int DEFAULT_CHUNK_SIZE = 1 << 16;
+    /**
+     * Initial number of references of the directory.
+     */
+    final static int INITIAL_CHUNKS = 8;
+    /**
+     * Used in the method indexOf to denote an element that is not present in the list.
+     */
+    final static long NOT_FOUND = -1;
+
+    /**
+     * The chunks. Only the first {@link BigArrayList#chunkCount} are allocated.
+     */
+    Object[][] chunks;
+    /**
+     * Number of chunks allocated.
+     */
+    int chunkCount;
+    /**
+     * Number of low bits of an index that select the position within a chunk.
+     */
+    final int chunkShift;
+    /**
+     * Selects the low bits of an index.
+     */
+    final int chunkMask;
+    /**
+     * Keeps the current number of elements.
+     */
+    long size;
+
+    /**
+     * The default constructor, using chunks of {@link BigArrayList#DEFAULT_CHUNK_SIZE} elements.
+     */
+    public BigArrayList() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor that chooses the size of the chunks. Larger chunks mean a smaller directory,
+     * smaller chunks less memory held by a partially filled last chunk.
+     * @param chunkSize the number of elements of each chunk, a power of two.
+     * @throws IllegalArgumentException if the chunk size is not a positive power of two.
+     */
+    public BigArrayList(int chunkSize) {
+        if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) throw new IllegalArgumentException();
+        chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        chunkMask = chunkSize - 1;
+        clear();
+    }
+
+    /**
+     * Adds an element at the end of the list. When the last chunk is full, a new one is
+     * allocated; the elements already added are never copied.
+     * @param element element to be added.
+     */
+    public void add(E element) {
+        int chunk = (int) (size >>> chunkShift);
+        if (chunk == chunkCount) {
+            if (chunkCount == chunks.length) chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            chunks[chunkCount++] = new Object[chunkMask + 1];
+        }
+        chunks[chunk][(int) size & chunkMask] = element;
+        ++size;
+    }
+
+    /**
+     * Returns the element at an index.
+     * @param index index of the element.
+     * @return the element at the index.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    @SuppressWarnings({"unchecked"})
+    public E get(long index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        return (E) chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+    }
+
+    /**
+     * Replaces the element at an index.
+     * @param index index of the element.
+     * @param element the new element.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public void set(long index, E element) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        chunks[(int) (index >>> chunkShift)][(int) index & chunkMask] = element;
+    }
+
+    /**
+     * Removes the last element. A chunk left empty is released.
+     * @return the element removed.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public E removeLast() throws NoSuchElementException {
+        E element = get(size - 1);
+        --size;
+        int position = (int) size & chunkMask;
+        if (position == 0) chunks[--chunkCount] = null;
+        else chunks[chunkCount - 1][position] = null;
+        return element;
+    }
+
+    /**
+     * Finds the index of the first occurrence of an element, walking the chunks in order.
+     * @param element element to be searched.
+     * @return the index of the element, or {@link BigArrayList#NOT_FOUND}.
+     */
+    public long indexOf(E element) {
+        if (element == null) return NOT_FOUND;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            Object[] values = chunks[chunk];
+            long base = (long) chunk << chunkShift;
+            int length = (int) Math.min(values.length, size - base);
+            for (int i = 0; i < length; i++) {
+                if (element.equals(values[i])) return base + i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Removes every element and releases every chunk.
+     */
+    public void clear() {
+        chunks = new Object[INITIAL_CHUNKS][];
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the size of the list.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * If size is 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns an iterator over the elements, in order.
+     * @return an iterator through the list.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings({"unchecked"})
+            public E next() {
+                if (index >= size) throw new NoSuchElementException();
+                E element = (E) chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+                index++;
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Returns a spliterator over the elements, which splits by halving its range of indices.
+     * Its size is exact. The list must not be modified while it is used.
+     * @return a spliterator over the elements.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new ChunkSpliterator(0, size);
+    }
+
+    /**
+     * Returns a sequential stream of the elements.
+     * @return a stream backed by {@link BigArrayList#spliterator()}.
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements.
+     * @return a parallel stream backed by {@link BigArrayList#spliterator()}.
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a string with all the elements of the list.
+     * @return a string with all the elements of the list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (E element : this) sb.append(element).append(" ");
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Spliterator over a range of indices, traversing each chunk as a plain array.
+     */
+    class ChunkSpliterator implements Spliterator<E> {
+        private long index;
+        private final long fence;
+
+        ChunkSpliterator(long index, long fence) {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index >= fence) return false;
+            action.accept((E) chunks[(int) (index >>> chunkShift)][(int) index & chunkMask]);
+            index++;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public void forEachRemaining(Consumer<? super E> action) {
+            while (index < fence) {
+                Object[] values = chunks[(int) (index >>> chunkShift)];
+                int end = (int) Math.min(chunkMask + 1, fence - (index & ~(long) chunkMask));
+                for (int i = (int) index & chunkMask; i < end; i++) action.accept((E) values[i]);
+                index = (index & ~(long) chunkMask) + end;
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            long middle = (index + fence) >>> 1;
+            if (middle <= index) return null;
+            Spliterator<E> lower = new ChunkSpliterator(index, middle);
+            index = middle;
+            return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.ccampana.datastructures;
+
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * BoundedCache is a cache built on top of {@link HashMap} that never holds more than a maximum
+ * weight of entries. By default each entry weighs 1, so the maximum weight is the maximum number of
+ * entries; a {@link Weigher} can be given to bound the cache by any other measure, such as bytes.
+ * When an insertion goes over the maximum, entries are evicted according to the policy chosen at
+ * construction, always in constant time.
+ * </p>
+ * <p>
+ * With {@link EvictionPolicy#LRU}, every entry is kept in a single list ordered by last access,
+ * and the least recently used entry is evicted first.
+ * </p>
+ * <p>
+ * With {@link EvictionPolicy#W_TINY_LFU}, new entries first go to a small LRU window of 1% of the
+ * weight. Entries leaving the window compete to enter the main space, a segmented LRU split into a
+ * probation segment and a protected segment with 80% of the main weight: a candidate from the
+ * window is only admitted if a {@link FrequencySketch} estimates it has been requested more often
+ * than the entry that would be evicted in its place. The sketch is sized by the number of entries,
+ * not by the weight, so it stays small and keeps aging in a cache of few heavy entries. Entries hit
+ * while in probation are promoted to the protected segment. This keeps popular entries in the cache
+ * even when bursts of one-off keys go through it, giving a much better hit ratio than LRU on skewed
+ * workloads.
+ * </p>
+ * <p>
+ * The cache counts its hits, misses and evictions.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link BoundedCache#put(K key, V value)} - adds a key-value pair, evicting if needed.</li>
+ * <li>{@link BoundedCache#get(K key)} - returns the value associated with a key.</li>
+ * <li>{@link BoundedCache#getIfPresent(K key)} - returns the value associated with a key, or
+ * null.</li>
+ * <li>{@link BoundedCache#get(K key, Function loader)} - returns the value associated with a key,
+ * loading and adding it on a miss.</li>
+ * <li>{@link BoundedCache#remove(K key)} - removes a key-value pair.</li>
+ * <li>{@link BoundedCache#size()} - Returns the number of entries.</li>
+ * <li>{@link BoundedCache#weightedSize()} - Returns the total weight of the entries.</li>
+ * <li>{@link BoundedCache#hitCount()}, {@link BoundedCache#missCount()},
+ * {@link BoundedCache#evictionCount()}, {@link BoundedCache#hitRate()} - statistics.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see FrequencySketch
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class BoundedCache<K, V> {
+    /**
+     * Fraction of the maximum weight given to the window.
+     */
+    final static double WINDOW_RATIO = 0.01;
+    /**
+     * Fraction of the main space given to the protected segment.
+     */
+    final static double PROTECTED_RATIO = 0.8;
+    /**
+     * Number of keys the frequency sketch is first sized for, at most the maximum weight. It grows
+     * with the number of entries.
+     */
+    final static int INITIAL_SKETCH_KEYS = 16;
+    /**
+     * Largest number of keys the frequency sketch is sized for.
+     */
+    final static int MAXIMUM_SKETCH_KEYS = 1 << 24;
+
+    /**
+     * The map from each key to its node.
+     */
+    final HashMap<K, Node<K, V>> data;
+    /**
+     * The hash function interface, shared with the map and the sketch.
+     */
+    final HashCode<K> hashFunction;
+    /**
+     * Gives the weight of each entry.
+     */
+    final Weigher<K, V> weigher;
+    /**
+     * The eviction policy chosen at construction.
+     */
+    final EvictionPolicy policy;
+    /**
+     * The maximum total weight of the entries.
+     */
+    final long maximumWeight;
+    /**
+     * The maximum weight of the window. Equal to the maximum weight in LRU mode.
+     */
+    final long windowMaximum;
+    /**
+     * The maximum weight of the probation and protected segments together.
+     */
+    final long mainMaximum;
+    /**
+     * The maximum weight of the protected segment.
+     */
+    final long protectedMaximum;
+    /**
+     * The window, which holds every entry in LRU mode.
+     */
+    final AccessQueue<K, V> window;
+    /**
+     * The probation segment of the main space.
+     */
+    final AccessQueue<K, V> probation;
+    /**
+     * The protected segment of the main space.
+     */
+    final AccessQueue<K, V> protection;
+    /**
+     * Estimates the frequency of the keys. Null in LRU mode.
+     */
+    final FrequencySketch sketch;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * This constructor bounds the cache by number of entries.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param maximumSize the maximum number of entries.
+     * @param policy the eviction policy.
+     */
+    public BoundedCache(HashCode<K> hashCode, long maximumSize, EvictionPolicy policy) {
+        this(hashCode, maximumSize, (key, value) -> 1, policy);
+    }
+
+    /**
+     * This constructor bounds the cache by the total weight of its entries.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param maximumWeight the maximum total weight.
+     * @param weigher gives the weight of each entry.
+     * @param policy the eviction policy.
+     * @throws IllegalArgumentException if the maximum weight is not positive.
+     */
+    public BoundedCache(HashCode<K> hashCode, long maximumWeight, Weigher<K, V> weigher, EvictionPolicy policy) {
+        if (maximumWeight <= 0) throw new IllegalArgumentException();
+        this.hashFunction = hashCode;
+        this.weigher = weigher;
+        this.policy = policy;
+        this.maximumWeight = maximumWeight;
+        this.data = new HashMap<>(hashCode, 0.75, HashMap.Probing.ROBIN_HOOD);
+        this.window = new AccessQueue<>();
+        this.probation = new AccessQueue<>();
+        this.protection = new AccessQueue<>();
+        if (policy == EvictionPolicy.W_TINY_LFU) {
+            windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+            mainMaximum = maximumWeight - windowMaximum;
+            protectedMaximum = (long) (mainMaximum * PROTECTED_RATIO);
+            sketch = new FrequencySketch(Math.min(maximumWeight, INITIAL_SKETCH_KEYS));
+        } else {
+            windowMaximum = maximumWeight;
+            mainMaximum = 0;
+            protectedMaximum = 0;
+            sketch = null;
+        }
+    }
+
+    /**
+     * Adds a key-value pair to the cache, replacing the previous value of the key, then evicts
+     * entries until the cache is within its maximum weight. The new pair itself may be evicted.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @throws IllegalArgumentException if the weigher gives a negative weight.
+     */
+    public void put(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) throw new IllegalArgumentException();
+        Node<K, V> node = data.getOrDefault(key, null);
+        if (node != null) {
+            node.queue.weight += weight - node.weight;
+            node.weight = weight;
+            node.value = value;
+            if (sketch != null) sketch.increment(node.hash);
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value, hashFunction.hashCode(key), weight);
+            data.put(key, node);
+            window.addLast(node);
+            if (sketch != null) {
+                sketch.ensureCapacity(Math.min(data.size(), MAXIMUM_SKETCH_KEYS));
+                sketch.increment(node.hash);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it. In case it does not exist,
+     * it throws a NoSuchElement exception.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     * @see NoSuchElementException
+     */
+    public V get(K key) {
+        Node<K, V> node = lookup(key);
+        if (node == null) throw new NoSuchElementException();
+        return node.value;
+    }
+
+    /**
+     * Returns the value associated with a key, or null if it is not in the cache.
+     * @param key to be searched.
+     * @return the value associated with the key, or null.
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = lookup(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Returns the value associated with a key. On a miss, the value is computed by the loader
+     * and added to the cache, unless it is null.
+     * @param key to be searched.
+     * @param loader computes the value of a missing key.
+     * @return the cached or loaded value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Node<K, V> node = lookup(key);
+        if (node != null) return node.value;
+        V value = loader.apply(key);
+        if (value != null) put(key, value);
+        return value;
+    }
+
+    /**
+     * Removes a value based on a given key.
+     * @param key of the object to be removed from the cache.
+     * @throws NoSuchElementException if the key is not in the cache.
+     */
+    public void remove(K key) {
+        Node<K, V> node = data.getOrDefault(key, null);
+        if (node == null) throw new NoSuchElementException();
+        node.queue.remove(node);
+        data.remove(key);
+    }
+
+    /**
+     * The number of entries in the cache.
+     * @return the number of entries.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * The total weight of the entries in the cache.
+     * @return the total weight.
+     */
+    public long weightedSize() {
+        return window.weight + probation.weight + protection.weight;
+    }
+
+    /**
+     * The number of lookups that found their key.
+     * @return the number of hits.
+     */
+    public long hitCount() {
+        return hits;
+    }
+
+    /**
+     * The number of lookups that did not find their key.
+     * @return the number of misses.
+     */
+    public long missCount() {
+        return misses;
+    }
+
+    /**
+     * The number of entries evicted to respect the maximum weight.
+     * @return the number of evictions.
+     */
+    public long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * The fraction of lookups that found their key, 1 if there was no lookup.
+     * @return the hit rate.
+     */
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Finds the node of a key, recording the access in the statistics, the sketch and the queues.
+     * @param key to be searched.
+     * @return the node of the key, or null.
+     */
+    private Node<K, V> lookup(K key) {
+        Node<K, V> node = data.getOrDefault(key, null);
+        if (sketch != null) sketch.increment(node != null ? node.hash : hashFunction.hashCode(key));
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node;
+    }
+
+    /**
+     * Moves an accessed node to the most recently used end of its queue. In W-TinyLFU mode, a node
+     * in probation is promoted to the protected segment, which may demote its least recently used
+     * nodes back to probation.
+     * @param node the accessed node.
+     */
+    private void onAccess(Node<K, V> node) {
+        if (node.queue != probation) {
+            node.queue.moveToLast(node);
+            return;
+        }
+        probation.remove(node);
+        protection.addLast(node);
+        while (protection.weight > protectedMaximum && protection.first != node) {
+            Node<K, V> demoted = protection.first;
+            protection.remove(demoted);
+            probation.addLast(demoted);
+        }
+    }
+
+    /**
+     * Evicts entries until every queue is within its maximum. In W-TinyLFU mode, the entries
+     * leaving the window are offered to the main space first.
+     */
+    private void evict() {
+        if (policy == EvictionPolicy.LRU) {
+            while (window.weight > windowMaximum) evictNode(window.first);
+            return;
+        }
+        while (window.weight > windowMaximum) {
+            Node<K, V> candidate = window.first;
+            window.remove(candidate);
+            admit(candidate);
+        }
+        while (weightedSize() > maximumWeight) {
+            Node<K, V> victim = probation.first != null ? probation.first
+                    : protection.first != null ? protection.first : window.first;
+            evictNode(victim);
+        }
+    }
+
+    /**
+     * Lets a candidate from the window into probation if there is room for it, or if it is more
+     * frequent than each victim that must be evicted to make room. Otherwise the candidate is
+     * evicted.
+     * @param candidate the node leaving the window.
+     */
+    private void admit(Node<K, V> candidate) {
+        if (candidate.weight > mainMaximum) {
+            evictNode(candidate);
+            return;
+        }
+        while (probation.weight + protection.weight + candidate.weight > mainMaximum) {
+            Node<K, V> victim = probation.first != null ? probation.first : protection.first;
+            if (sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                evictNode(candidate);
+                return;
+            }
+            evictNode(victim);
+        }
+        probation.addLast(candidate);
+    }
+
+    /**
+     * Removes a node from its queue, if any, and from the map.
+     * @param node the node to be evicted.
+     */
+    private void evictNode(Node<K, V> node) {
+        if (node.queue != null) node.queue.remove(node);
+        data.remove(node.key);
+        evictions++;
+    }
+
+    /**
+     * The eviction policies supported by the cache.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evicts the least recently used entry.
+         */
+        LRU,
+        /**
+         * Window TinyLFU: a small LRU window in front of a segmented LRU main space guarded by
+         * a frequency-based admission filter.
+         */
+        W_TINY_LFU
+    }
+
+    /**
+     * An entry of the cache, linked into the queue of its segment.
+     */
+    static class Node<K, V> {
+        final K key;
+        V value;
+        final int hash;
+        int weight;
+        Node<K, V> previous;
+        Node<K, V> next;
+        AccessQueue<K, V> queue;
+
+        Node(K key, V value, int hash, int weight) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A doubly linked list of nodes ordered from least to most recently used, keeping the total
+     * weight of its nodes. Every operation takes constant time.
+     */
+    static class AccessQueue<K, V> {
+        Node<K, V> first;
+        Node<K, V> last;
+        long weight;
+
+        /**
+         * Appends a node at the most recently used end.
+         */
+        void addLast(Node<K, V> node) {
+            node.queue = this;
+            node.previous = last;
+            node.next = null;
+            if (last == null) first = node;
+            else last.next = node;
+            last = node;
+            weight += node.weight;
+        }
+
+        /**
+         * Unlinks a node of this queue.
+         */
+        void remove(Node<K, V> node) {
+            if (node.previous == null) first = node.next;
+            else node.previous.next = node.next;
+            if (node.next == null) last = node.previous;
+            else node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+            node.queue = null;
+            weight -= node.weight;
+        }
+
+        /**
+         * Moves a node of this queue to the most recently used end.
+         */
+        void moveToLast(Node<K, V> node) {
+            if (node == last) return;
+            remove(node);
+            addLast(node);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ccampana.datastructures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Translates objects to and from bytes, so that they can be kept outside the Java heap.
+ * The encoding must be deterministic: two equal objects must always give the same bytes, since
+ * keys are compared in their encoded form.
+ *
+ * @param <T> The type of the object.
+ */
+public interface Codec<T> {
+    /**
+     * Returns the number of bytes needed to encode an object.
+     * @param value the object to be encoded.
+     * @return the encoded size in bytes.
+     */
+    int sizeOf(T value);
+
+    /**
+     * Writes an object at the current position of the buffer, advancing it by exactly
+     * {@link Codec#sizeOf(Object)} bytes.
+     * @param value the object to be encoded.
+     * @param target the buffer receiving the bytes.
+     */
+    void encode(T value, ByteBuffer target);
+
+    /**
+     * Reads an object from the current position of the buffer.
+     * @param source the buffer holding the bytes.
+     * @param length the number of bytes of the object.
+     * @return the decoded object.
+     */
+    T decode(ByteBuffer source, int length);
+}
@@ -0,0 +1,86 @@
+package com.ccampana.datastructures;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ready-made implementations of the interface {@link Codec} for common types.
+ */
+public final class Codecs {
+    /**
+     * Encodes an Integer in 4 bytes.
+     */
+    public static final Codec<Integer> INTEGER = new Codec<>() {
+        @Override
+        public int sizeOf(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer target) {
+            target.putInt(value);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer source, int length) {
+            return source.getInt();
+        }
+    };
+
+    /**
+     * Encodes a Long in 8 bytes.
+     */
+    public static final Codec<Long> LONG = new Codec<>() {
+        @Override
+        public int sizeOf(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer target) {
+            target.putLong(value);
+        }
+
+        @Override
+        public Long decode(ByteBuffer source, int length) {
+            return source.getLong();
+        }
+    };
+
+    /**
+     * Encodes a String in UTF-8.
+     */
+    public static final Codec<String> STRING = new Codec<>() {
+        @Override
+        public int sizeOf(String value) {
+            int size = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) size += 1;
+                else if (c < 0x800) size += 2;
+                else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    size += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) size += 1;
+                else size += 3;
+            }
+            return size;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer target) {
+            target.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer source, int length) {
+            byte[] bytes = new byte[length];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    private Codecs() {
+    }
+}
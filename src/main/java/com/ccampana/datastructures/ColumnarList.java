@@ -0,0 +1,602 @@
+package com.ccampana.datastructures;
+
+import java.util.NoSuchElementException;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * <p>
+ * ColumnarList is a list of records stored as a struct of arrays: instead of keeping one object
+ * per record, every field of the records is kept in its own column, an {@link IntArrayList},
+ * {@link LongArrayList} or {@link DoubleArrayList} for primitive fields. A record then costs only
+ * the bytes of its fields, with no object header and no reference, and a scan over one field
+ * reads a single contiguous primitive array instead of following a reference per record.
+ * </p>
+ * <p>
+ * The fields are described by a {@link Schema}, which gives the accessor of each column and how
+ * to rebuild a record from a {@link Row}. Records are split into the columns when added, and
+ * rebuilt by {@link ColumnarList#get(int)}, so the class still implements {@link List}; a
+ * {@link Row} reads the fields of one record without rebuilding it.
+ * </p>
+ * <p>
+ * Columns are scanned through {@link ColumnarList#ints(String)}, {@link ColumnarList#longs(String)}
+ * and {@link ColumnarList#doubles(String)}, which return the columns themselves, along with their
+ * reductions and direct array access, and filtered through the where methods, which return the
+ * indices of the matching rows.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link ColumnarList#add(E element)} - splits a record into the columns.</li>
+ * <li>{@link ColumnarList#get(int index)} - rebuilds the record at an index.</li>
+ * <li>{@link ColumnarList#row(int index)} - returns a view of the fields of a record.</li>
+ * <li>{@link ColumnarList#remove(E element)}, {@link ColumnarList#removeAt(int index)} - remove a
+ * record from every column.</li>
+ * <li>{@link ColumnarList#indexOf(E element)} - returns the index of a record.</li>
+ * <li>{@link ColumnarList#ints(String column)}, {@link ColumnarList#longs(String column)},
+ * {@link ColumnarList#doubles(String column)} - return a primitive column.</li>
+ * <li>{@link ColumnarList#whereInt(String column, IntPredicate filter)},
+ * {@link ColumnarList#whereLong(String column, LongPredicate filter)},
+ * {@link ColumnarList#whereDouble(String column, DoublePredicate filter)} - return the indices of
+ * the rows matching a filter on a column.</li>
+ * <li>{@link ColumnarList#size()} - Returns the number of records.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see Schema
+ * @see IntArrayList
+ * @param <E> The type of the records.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class ColumnarList<E> implements List<E> {
+    /**
+     * Used in the method indexOf to denote a record that is not present in the list.
+     */
+    final static int NOT_FOUND = -1;
+
+    /**
+     * Describes the columns and rebuilds the records.
+     */
+    final Schema<E> schema;
+    /**
+     * The columns, in the order of the schema.
+     */
+    final Column<E>[] columns;
+    /**
+     * Keeps the current number of records.
+     */
+    int size;
+
+    /**
+     * Creates an empty list with a column for each field of the schema, which can no longer get
+     * new columns.
+     * @param schema describes the columns.
+     * @throws IllegalArgumentException if the schema has no column.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public ColumnarList(Schema<E> schema) {
+        if (schema.columns.size() == 0) throw new IllegalArgumentException();
+        schema.frozen = true;
+        this.schema = schema;
+        this.columns = new Column[schema.columns.size()];
+        for (int i = 0; i < columns.length; i++) columns[i] = schema.columns.get(i).copy();
+        this.size = 0;
+    }
+
+    /**
+     * Splits a record into the columns.
+     * @param element the record to be added.
+     */
+    @Override
+    public void add(E element) {
+        for (Column<E> column : columns) column.add(element);
+        ++size;
+    }
+
+    /**
+     * Rebuilds the record at an index through the factory of the schema.
+     * @param index index of the record.
+     * @return a new record with the fields at the index.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    @Override
+    public E get(int index) throws NoSuchElementException {
+        return schema.factory.apply(row(index));
+    }
+
+    /**
+     * Returns a view of the fields of the record at an index, without rebuilding it.
+     * @param index index of the record.
+     * @return a view of the row.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public Row row(int index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        return new Row(this, index);
+    }
+
+    /**
+     * Removes the first record whose fields are all equal to those of the given one.
+     * @param element the record to be removed.
+     * @throws NoSuchElementException if there is no such record.
+     */
+    @Override
+    public void remove(E element) throws NoSuchElementException {
+        int index = indexOf(element);
+        if (index == NOT_FOUND) throw new NoSuchElementException();
+        removeAt(index);
+    }
+
+    /**
+     * Removes the record at an index from every column.
+     * @param index index of the record.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public void removeAt(int index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        for (Column<E> column : columns) column.removeAt(index);
+        --size;
+    }
+
+    /**
+     * Removes every record.
+     */
+    @Override
+    public void clear() {
+        for (Column<E> column : columns) column.clear();
+        size = 0;
+    }
+
+    /**
+     * Finds the first record whose fields are all equal to those of the given one. The first
+     * column is scanned on its own, and the other columns are only checked on its matches.
+     * @param element the record to be searched.
+     * @return the index of the record, or {@link ColumnarList#NOT_FOUND}.
+     */
+    @Override
+    public int indexOf(E element) {
+        if (element == null) return NOT_FOUND;
+        for (int i = 0; i < size; i++) {
+            int column = 0;
+            while (column < columns.length && columns[column].matches(element, i)) column++;
+            if (column == columns.length) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Rebuilds every record into an array.
+     * @return an array with the records.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E[] toArray() {
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++) array[i] = get(i);
+        return (E[]) array;
+    }
+
+    /**
+     * Returns the number of records.
+     * @return the size of the list.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * If size is 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the list is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the int column with the given name. The column is live and must not be resized
+     * by the caller.
+     * @param column name of the column.
+     * @return the values of the column, one per record.
+     * @throws NoSuchElementException if there is no such column.
+     * @throws IllegalArgumentException if the column does not hold ints.
+     */
+    public IntArrayList ints(String column) {
+        Column<E> found = column(column);
+        if (!(found instanceof IntColumn)) throw new IllegalArgumentException();
+        return ((IntColumn<E>) found).values;
+    }
+
+    /**
+     * Returns the long column with the given name. The column is live and must not be resized
+     * by the caller.
+     * @param column name of the column.
+     * @return the values of the column, one per record.
+     * @throws NoSuchElementException if there is no such column.
+     * @throws IllegalArgumentException if the column does not hold longs.
+     */
+    public LongArrayList longs(String column) {
+        Column<E> found = column(column);
+        if (!(found instanceof LongColumn)) throw new IllegalArgumentException();
+        return ((LongColumn<E>) found).values;
+    }
+
+    /**
+     * Returns the double column with the given name. The column is live and must not be resized
+     * by the caller.
+     * @param column name of the column.
+     * @return the values of the column, one per record.
+     * @throws NoSuchElementException if there is no such column.
+     * @throws IllegalArgumentException if the column does not hold doubles.
+     */
+    public DoubleArrayList doubles(String column) {
+        Column<E> found = column(column);
+        if (!(found instanceof DoubleColumn)) throw new IllegalArgumentException();
+        return ((DoubleColumn<E>) found).values;
+    }
+
+    /**
+     * Scans an int column for the rows matching a filter.
+     * @param column name of the column.
+     * @param filter returns true for the values of the rows to be selected.
+     * @return the indices of the matching rows, in order.
+     */
+    public IntArrayList whereInt(String column, IntPredicate filter) {
+        int[] values = ints(column).array();
+        IntArrayList rows = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            if (filter.test(values[i])) rows.add(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Scans a long column for the rows matching a filter.
+     * @param column name of the column.
+     * @param filter returns true for the values of the rows to be selected.
+     * @return the indices of the matching rows, in order.
+     */
+    public IntArrayList whereLong(String column, LongPredicate filter) {
+        long[] values = longs(column).array();
+        IntArrayList rows = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            if (filter.test(values[i])) rows.add(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Scans a double column for the rows matching a filter.
+     * @param column name of the column.
+     * @param filter returns true for the values of the rows to be selected.
+     * @return the indices of the matching rows, in order.
+     */
+    public IntArrayList whereDouble(String column, DoublePredicate filter) {
+        double[] values = doubles(column).array();
+        IntArrayList rows = new IntArrayList();
+        for (int i = 0; i < size; i++) {
+            if (filter.test(values[i])) rows.add(i);
+        }
+        return rows;
+    }
+
+    /**
+     * Returns a string with all the records of the list.
+     * @return a string with all the records of the list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) sb.append(get(i)).append(" ");
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Finds a column by name.
+     * @throws NoSuchElementException if there is no such column.
+     */
+    private Column<E> column(String name) {
+        return columns[schema.positions.get(name)];
+    }
+
+    /**
+     * <p>
+     * Describes the columns of a {@link ColumnarList}: the name and accessor of each field, and
+     * the factory that rebuilds a record from a {@link Row}. Columns are added in order, and a
+     * schema can be shared by several lists. Once a list is built from it the schema is frozen,
+     * since the lists find their columns through its positions.
+     * </p>
+     * @param <E> The type of the records.
+     */
+    public static class Schema<E> {
+        final Function<Row, E> factory;
+        final ArrayList<Column<E>> columns;
+        final HashMap<String, Integer> positions;
+        /**
+         * Set once a list is built from the schema; no column can be added afterwards.
+         */
+        boolean frozen;
+
+        /**
+         * Creates a schema without columns.
+         * @param factory rebuilds a record from the view of its row.
+         */
+        public Schema(Function<Row, E> factory) {
+            this.factory = factory;
+            this.columns = new ArrayList<>(true);
+            this.positions = new HashMap<>(HashCodes.STRING, 0.75, HashMap.Probing.ROBIN_HOOD);
+        }
+
+        /**
+         * Adds a column of ints.
+         * @param name name of the column.
+         * @param accessor reads the field from a record.
+         * @return this schema.
+         * @throws IllegalArgumentException if there is already a column with the name.
+         * @throws IllegalStateException if a list was already built from the schema.
+         */
+        public Schema<E> intColumn(String name, ToIntFunction<? super E> accessor) {
+            return column(name, new IntColumn<>(accessor));
+        }
+
+        /**
+         * Adds a column of longs.
+         * @param name name of the column.
+         * @param accessor reads the field from a record.
+         * @return this schema.
+         * @throws IllegalArgumentException if there is already a column with the name.
+         * @throws IllegalStateException if a list was already built from the schema.
+         */
+        public Schema<E> longColumn(String name, ToLongFunction<? super E> accessor) {
+            return column(name, new LongColumn<>(accessor));
+        }
+
+        /**
+         * Adds a column of doubles.
+         * @param name name of the column.
+         * @param accessor reads the field from a record.
+         * @return this schema.
+         * @throws IllegalArgumentException if there is already a column with the name.
+         * @throws IllegalStateException if a list was already built from the schema.
+         */
+        public Schema<E> doubleColumn(String name, ToDoubleFunction<? super E> accessor) {
+            return column(name, new DoubleColumn<>(accessor));
+        }
+
+        /**
+         * Adds a column of objects, for the fields that are not primitive.
+         * @param name name of the column.
+         * @param accessor reads the field from a record.
+         * @return this schema.
+         * @throws IllegalArgumentException if there is already a column with the name.
+         * @throws IllegalStateException if a list was already built from the schema.
+         */
+        public Schema<E> objectColumn(String name, Function<? super E, ?> accessor) {
+            return column(name, new ObjectColumn<>(accessor));
+        }
+
+        private Schema<E> column(String name, Column<E> column) {
+            if (frozen) throw new IllegalStateException();
+            if (positions.containsKey(name)) throw new IllegalArgumentException();
+            positions.put(name, columns.size());
+            columns.add(column);
+            return this;
+        }
+    }
+
+    /**
+     * <p>
+     * A view of the fields of one record of a {@link ColumnarList}, read straight from the
+     * columns. It is only valid until the list is modified.
+     * </p>
+     */
+    public static class Row {
+        final ColumnarList<?> list;
+        final int index;
+
+        Row(ColumnarList<?> list, int index) {
+            this.list = list;
+            this.index = index;
+        }
+
+        /**
+         * Reads an int field.
+         * @param column name of the column.
+         * @return the value of the field.
+         */
+        public int getInt(String column) {
+            return list.ints(column).array()[index];
+        }
+
+        /**
+         * Reads a long field.
+         * @param column name of the column.
+         * @return the value of the field.
+         */
+        public long getLong(String column) {
+            return list.longs(column).array()[index];
+        }
+
+        /**
+         * Reads a double field.
+         * @param column name of the column.
+         * @return the value of the field.
+         */
+        public double getDouble(String column) {
+            return list.doubles(column).array()[index];
+        }
+
+        /**
+         * Reads an object field.
+         * @param column name of the column.
+         * @param <T> the type of the field.
+         * @return the value of the field.
+         * @throws IllegalArgumentException if the column is primitive.
+         */
+        @SuppressWarnings({"unchecked"})
+        public <T> T get(String column) {
+            Column<?> found = list.column(column);
+            if (!(found instanceof ObjectColumn)) throw new IllegalArgumentException();
+            return (T) ((ObjectColumn<?>) found).values.get(index);
+        }
+
+        /**
+         * The index of the row in its list.
+         * @return the index of the row.
+         */
+        public int index() {
+            return index;
+        }
+    }
+
+    /**
+     * A column of the list, filled from one field of each record.
+     */
+    static abstract class Column<E> {
+        abstract void add(E element);
+
+        abstract void removeAt(int index);
+
+        abstract void clear();
+
+        /**
+         * Whether the field of a record is equal to the value of the column at an index.
+         */
+        abstract boolean matches(E element, int index);
+
+        /**
+         * Returns an empty column with the same accessor.
+         */
+        abstract Column<E> copy();
+    }
+
+    static class IntColumn<E> extends Column<E> {
+        final ToIntFunction<? super E> accessor;
+        final IntArrayList values = new IntArrayList();
+
+        IntColumn(ToIntFunction<? super E> accessor) {
+            this.accessor = accessor;
+        }
+
+        void add(E element) {
+            values.add(accessor.applyAsInt(element));
+        }
+
+        void removeAt(int index) {
+            values.removeAt(index);
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        boolean matches(E element, int index) {
+            return values.array()[index] == accessor.applyAsInt(element);
+        }
+
+        Column<E> copy() {
+            return new IntColumn<>(accessor);
+        }
+    }
+
+    static class LongColumn<E> extends Column<E> {
+        final ToLongFunction<? super E> accessor;
+        final LongArrayList values = new LongArrayList();
+
+        LongColumn(ToLongFunction<? super E> accessor) {
+            this.accessor = accessor;
+        }
+
+        void add(E element) {
+            values.add(accessor.applyAsLong(element));
+        }
+
+        void removeAt(int index) {
+            values.removeAt(index);
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        boolean matches(E element, int index) {
+            return values.array()[index] == accessor.applyAsLong(element);
+        }
+
+        Column<E> copy() {
+            return new LongColumn<>(accessor);
+        }
+    }
+
+    static class DoubleColumn<E> extends Column<E> {
+        final ToDoubleFunction<? super E> accessor;
+        final DoubleArrayList values = new DoubleArrayList();
+
+        DoubleColumn(ToDoubleFunction<? super E> accessor) {
+            this.accessor = accessor;
+        }
+
+        void add(E element) {
+            values.add(accessor.applyAsDouble(element));
+        }
+
+        void removeAt(int index) {
+            values.removeAt(index);
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        boolean matches(E element, int index) {
+            return Double.compare(values.array()[index], accessor.applyAsDouble(element)) == 0;
+        }
+
+        Column<E> copy() {
+            return new DoubleColumn<>(accessor);
+        }
+    }
+
+    static class ObjectColumn<E> extends Column<E> {
+        final Function<? super E, ?> accessor;
+        final ArrayList<Object> values = new ArrayList<>(true);
+
+        ObjectColumn(Function<? super E, ?> accessor) {
+            this.accessor = accessor;
+        }
+
+        void add(E element) {
+            values.add(accessor.apply(element));
+        }
+
+        void removeAt(int index) {
+            values.removeAt(index);
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        boolean matches(E element, int index) {
+            Object value = values.get(index);
+            Object field = accessor.apply(element);
+            return value == null ? field == null : value.equals(field);
+        }
+
+        Column<E> copy() {
+            return new ObjectColumn<>(accessor);
+        }
+    }
+}
@@ -0,0 +1,655 @@
+package com.ccampana.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * ConcurrentHashMap is a thread-safe hash map that can be shared by many threads without any
+ * external lock. As {@link HashMap}, it relies on the interface {@link HashCode} to hash the keys.
+ * </p>
+ * <p>
+ * The table is an array of bins, each one holding a chain of nodes. Reads never lock: they follow
+ * volatile references from the bin to the node holding the key. Writes to an empty bin are a
+ * single compare-and-set, while writes to a non-empty bin lock only that bin, by synchronizing on
+ * its first node, so threads working on different bins never wait on each other.
+ * </p>
+ * <p>
+ * When the number of entries reaches 0.75 of the number of bins, the table doubles. The resize is
+ * cooperative: the bins are claimed in strides by every thread that gets to write during the
+ * resize, and each moved bin is replaced by a forwarding node that sends readers and writers to the
+ * new table. Readers are never blocked by a resize.
+ * </p>
+ * <p>
+ * Neither keys nor values may be null.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link ConcurrentHashMap#put(K key, V value)} - adds a key-value pair to the hash map.</li>
+ * <li>{@link ConcurrentHashMap#putIfAbsent(K key, V value)} - atomically adds a key-value pair if
+ * the key is not in the hash map.</li>
+ * <li>{@link ConcurrentHashMap#compute(K key, BiFunction remapping)} - atomically computes the new
+ * value of a key.</li>
+ * <li>{@link ConcurrentHashMap#computeIfAbsent(K key, Function mapping)} - atomically computes the
+ * value of a key that is not in the hash map.</li>
+ * <li>{@link ConcurrentHashMap#merge(K key, V value, BiFunction remapping)} - atomically merges a
+ * value with the current value of a key.</li>
+ * <li>{@link ConcurrentHashMap#remove(K key)} - removes a key-value pair from the hash map.</li>
+ * <li>{@link ConcurrentHashMap#get(K key)} - returns the value associated with a key.</li>
+ * <li>{@link ConcurrentHashMap#getOrDefault(K key, V defaultValue)} - returns the value associated
+ * with a key, or a default value.</li>
+ * <li>{@link ConcurrentHashMap#containsKey(K key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link ConcurrentHashMap#keys()} - returns a list of all keys within the hash map.</li>
+ * <li>{@link ConcurrentHashMap#values()} - returns a list of all values within the hash map.</li>
+ * <li>{@link ConcurrentHashMap#size()} - Returns the size of the hash map.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see HashCode
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class ConcurrentHashMap<K, V> {
+    /**
+     * Default number of bins. Must be a power of two.
+     */
+    final static int DEFAULT_CAPACITY = 16;
+    /**
+     * Largest number of bins of the table.
+     */
+    final static int MAXIMUM_CAPACITY = 1 << 30;
+    /**
+     * Fraction of the bins that can be used before the table doubles.
+     */
+    final static double MAX_LOAD = 0.75;
+    /**
+     * Smallest number of bins claimed at once by a thread taking part in a resize.
+     */
+    final static int MIN_TRANSFER_STRIDE = 16;
+    /**
+     * Hash of the forwarding nodes.
+     */
+    final static int MOVED = -1;
+    /**
+     * Hash of the reservation nodes.
+     */
+    final static int RESERVED = -2;
+    /**
+     * Usable bits of a key hash. Keeps them positive, apart from the special nodes.
+     */
+    final static int HASH_BITS = 0x7fffffff;
+    /**
+     * Volatile access to the bins of a table.
+     */
+    private static final VarHandle BIN = MethodHandles.arrayElementVarHandle(Node[].class);
+    /**
+     * Atomic access to {@link ConcurrentHashMap#resize}.
+     */
+    private static final VarHandle RESIZE;
+
+    static {
+        try {
+            RESIZE = MethodHandles.lookup().findVarHandle(ConcurrentHashMap.class, "resize", Resize.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The hash function interface, required by the constructors.
+     */
+    final HashCode<K> hashFunction;
+    /**
+     * The current table. Its length is always a power of two.
+     */
+    volatile Node<K, V>[] table;
+    /**
+     * The resize in progress, null otherwise.
+     */
+    volatile Resize<K, V> resize;
+    /**
+     * Number of entries at which the table doubles.
+     */
+    volatile int threshold;
+    /**
+     * The number of entries, spread over several cells to avoid contention.
+     */
+    final LongAdder count;
+
+    /**
+     * This constructor initializes the hashCode and a table with the default capacity.
+     * @param hashCode a class that implements the interface HashCode.
+     */
+    public ConcurrentHashMap(HashCode<K> hashCode) {
+        this(hashCode, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * This constructor allows for a custom initial capacity, which is rounded up to a power of
+     * two.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param initialCapacity the initial number of bins.
+     * @throws IllegalArgumentException if the initial capacity is not positive.
+     */
+    public ConcurrentHashMap(HashCode<K> hashCode, int initialCapacity) {
+        if (initialCapacity <= 0) throw new IllegalArgumentException();
+        int capacity = initialCapacity >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY
+                : Integer.highestOneBit(Math.max(1, initialCapacity - 1) << 1);
+        hashFunction = hashCode;
+        table = newTable(capacity);
+        threshold = (int) (capacity * MAX_LOAD);
+        count = new LongAdder();
+    }
+
+    /**
+     * Adds a key-value pair to the hash map, replacing the previous value of the key.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @throws NullPointerException if the key or the value is null.
+     */
+    public void put(K key, V value) {
+        putValue(key, value, false);
+    }
+
+    /**
+     * Atomically adds a key-value pair to the hash map, unless the key is already there.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @return the current value of the key, or null if the pair was added.
+     * @throws NullPointerException if the key or the value is null.
+     */
+    public V putIfAbsent(K key, V value) {
+        return putValue(key, value, true);
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it. In case it does not exist,
+     * it throws a NoSuchElement exception. It never locks.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     * @see NoSuchElementException
+     */
+    public V get(K key) {
+        V value = find(key);
+        if (value == null) throw new NoSuchElementException();
+        return value;
+    }
+
+    /**
+     * Returns the value associated with a key, or a default value if the key is not in the map.
+     * @param key to be searched.
+     * @param defaultValue returned when the key is not in the map.
+     * @return the value associated with the key, or the default value.
+     */
+    public V getOrDefault(K key, V defaultValue) {
+        V value = find(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Removes a value based on a given key.
+     * @param key of the object to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
+     */
+    public void remove(K key) {
+        if (compute(key, (k, v) -> null, true) == null) throw new NoSuchElementException();
+    }
+
+    /**
+     * Atomically computes the new value of a key from its current value, which is null when the
+     * key is not in the map. If the function returns null, the key is removed. The bin of the key
+     * stays locked while the function runs, so it should be short and must not update this map.
+     * @param key the key used for indexing.
+     * @param remapping computes the new value from the key and its current value.
+     * @return the new value, or null if the key is no longer in the map.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        return compute(key, remapping, false);
+    }
+
+    /**
+     * Atomically computes the value of a key that is not in the map. The function is called at
+     * most once, and not at all if the key is already there.
+     * @param key the key used for indexing.
+     * @param mapping computes the value from the key. If it returns null, nothing is added.
+     * @return the current or computed value, or null if nothing was added.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+        return compute(key, (k, v) -> v != null ? v : mapping.apply(k), false);
+    }
+
+    /**
+     * Atomically merges a value with the current value of a key. If the key is not in the map,
+     * the value is added; otherwise the function combines both, and a null result removes the key.
+     * @param key the key used for indexing.
+     * @param value the value to be merged.
+     * @param remapping combines the current value with the given one.
+     * @return the new value, or null if the key is no longer in the map.
+     * @throws NullPointerException if the value is null.
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remapping) {
+        if (value == null) throw new NullPointerException();
+        return compute(key, (k, v) -> v == null ? value : remapping.apply(v, value), false);
+    }
+
+    /**
+     * Returns all the hash map keys in a list. The list reflects the map at some point during
+     * the call; it is never affected by later updates.
+     * @return a list containing all the keys.
+     */
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>();
+        Node<K, V>[] tab = table;
+        for (int i = 0; i < tab.length; i++) visitBin(tab, i, (k, v) -> keys.add(k));
+        return keys;
+    }
+
+    /**
+     * Returns all the hash map values in a list. The list reflects the map at some point during
+     * the call; it is never affected by later updates.
+     * @return a list containing all the values.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        Node<K, V>[] tab = table;
+        for (int i = 0; i < tab.length; i++) visitBin(tab, i, (k, v) -> values.add(v));
+        return values;
+    }
+
+    /**
+     * The size of the hash map. While other threads are updating it, the size is an estimate.
+     * @return the number of entries.
+     */
+    public int size() {
+        long sum = count.sum();
+        return sum < 0 ? 0 : sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /**
+     * Spreads the hash given by the hash function, so that the high bits also take part in the
+     * choice of the bin, and keeps it positive.
+     * @param key to be hashed.
+     * @return the spread hash of the key.
+     */
+    private int hash(K key) {
+        int hash = hashFunction.hashCode(key);
+        return (hash ^ (hash >>> 16)) & HASH_BITS;
+    }
+
+    /**
+     * Finds the value of a key without locking, following forwarding nodes into the next table.
+     * @param key to be searched.
+     * @return the value of the key, or null if it is not in the map.
+     */
+    private V find(K key) {
+        int h = hash(key);
+        Node<K, V>[] tab = table;
+        for (; ; ) {
+            Node<K, V> e = binAt(tab, h & (tab.length - 1));
+            if (e == null) return null;
+            if (e.hash == MOVED) {
+                tab = ((ForwardingNode<K, V>) e).resize.to;
+                continue;
+            }
+            for (; e != null; e = e.next) {
+                if (e.hash == h && hashFunction.keyEquals(key, e.key)) return e.value;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds or updates a key-value pair. An empty bin is filled through compare-and-set, while a
+     * non-empty bin is locked through its first node.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @param onlyIfAbsent whether an existing value must be kept.
+     * @return the previous value, or null if the pair was added.
+     */
+    private V putValue(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) throw new NullPointerException();
+        int h = hash(key);
+        Node<K, V>[] tab = table;
+        for (; ; ) {
+            int i = h & (tab.length - 1);
+            Node<K, V> first = binAt(tab, i);
+            if (first == null) {
+                if (casBin(tab, i, null, new Node<>(h, key, value, null))) break;
+            } else if (first.hash == MOVED) {
+                tab = helpResize((ForwardingNode<K, V>) first);
+            } else {
+                V previous = null;
+                boolean locked = false;
+                synchronized (first) {
+                    if (binAt(tab, i) == first && first.hash >= 0) {
+                        locked = true;
+                        for (Node<K, V> e = first; ; e = e.next) {
+                            if (e.hash == h && hashFunction.keyEquals(key, e.key)) {
+                                previous = e.value;
+                                if (!onlyIfAbsent) e.value = value;
+                                break;
+                            }
+                            if (e.next == null) {
+                                e.next = new Node<>(h, key, value, null);
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (locked) {
+                    if (previous != null) return previous;
+                    break;
+                }
+            }
+        }
+        addCount(1);
+        return null;
+    }
+
+    /**
+     * Computes the new value of a key under the lock of its bin. An empty bin is first reserved
+     * through compare-and-set with a locked reservation node, so that the function still runs
+     * only once.
+     * @param key the key used for indexing.
+     * @param remapping computes the new value from the key and its current value.
+     * @param returnPrevious whether the previous value must be returned instead of the new one.
+     * @return the new value, or the previous one if requested.
+     */
+    private V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping, boolean returnPrevious) {
+        if (key == null || remapping == null) throw new NullPointerException();
+        int h = hash(key);
+        Node<K, V>[] tab = table;
+        for (; ; ) {
+            int i = h & (tab.length - 1);
+            Node<K, V> first = binAt(tab, i);
+            V value = null;
+            V previous = null;
+            int delta = 0;
+            boolean done = false;
+            if (first == null) {
+                Node<K, V> reservation = new Node<>(RESERVED, null, null, null);
+                synchronized (reservation) {
+                    if (casBin(tab, i, null, reservation)) {
+                        done = true;
+                        Node<K, V> node = null;
+                        try {
+                            value = remapping.apply(key, null);
+                            if (value != null) {
+                                node = new Node<>(h, key, value, null);
+                                delta = 1;
+                            }
+                        } finally {
+                            setBin(tab, i, node);
+                        }
+                    }
+                }
+            } else if (first.hash == MOVED) {
+                tab = helpResize((ForwardingNode<K, V>) first);
+                continue;
+            } else {
+                synchronized (first) {
+                    if (binAt(tab, i) == first && first.hash >= 0) {
+                        done = true;
+                        for (Node<K, V> e = first, predecessor = null; ; predecessor = e, e = e.next) {
+                            if (e == null) {
+                                value = remapping.apply(key, null);
+                                if (value != null) {
+                                    predecessor.next = new Node<>(h, key, value, null);
+                                    delta = 1;
+                                }
+                                break;
+                            }
+                            if (e.hash == h && hashFunction.keyEquals(key, e.key)) {
+                                previous = e.value;
+                                value = remapping.apply(key, previous);
+                                if (value != null) {
+                                    e.value = value;
+                                } else {
+                                    delta = -1;
+                                    if (predecessor == null) setBin(tab, i, e.next);
+                                    else predecessor.next = e.next;
+                                }
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            if (done) {
+                if (delta != 0) addCount(delta);
+                return returnPrevious ? previous : value;
+            }
+        }
+    }
+
+    /**
+     * Updates the number of entries. If it reaches the threshold, a resize is started, or the
+     * one in progress is helped.
+     * @param delta the change in the number of entries.
+     */
+    private void addCount(int delta) {
+        count.add(delta);
+        if (delta <= 0) return;
+        for (; ; ) {
+            Resize<K, V> current = resize;
+            if (current != null) {
+                transfer(current);
+                return;
+            }
+            Node<K, V>[] tab = table;
+            if (count.sum() < threshold || tab.length >= MAXIMUM_CAPACITY) return;
+            Resize<K, V> started = new Resize<>(tab, newTable(tab.length << 1));
+            if (RESIZE.compareAndSet(this, null, started)) {
+                if (table == tab) {
+                    transfer(started);
+                    return;
+                }
+                RESIZE.compareAndSet(this, started, null);
+            }
+        }
+    }
+
+    /**
+     * Joins the resize announced by a forwarding node.
+     * @param forwarding the forwarding node found in a bin.
+     * @return the table to be used from now on.
+     */
+    private Node<K, V>[] helpResize(ForwardingNode<K, V> forwarding) {
+        transfer(forwarding.resize);
+        return forwarding.resize.to;
+    }
+
+    /**
+     * Moves bins from the old table to the new one, claiming strides of bins until every bin has
+     * been claimed. The thread that finishes the last stride publishes the new table.
+     * @param current the resize in progress.
+     */
+    private void transfer(Resize<K, V> current) {
+        for (; ; ) {
+            int end = current.nextIndex.get();
+            if (end <= 0) return;
+            int start = Math.max(0, end - current.stride);
+            if (!current.nextIndex.compareAndSet(end, start)) continue;
+            for (int i = start; i < end; i++) moveBin(current, i);
+            if (current.remaining.addAndGet(start - end) == 0) {
+                if (table == current.from) {
+                    threshold = (int) (current.to.length * MAX_LOAD);
+                    table = current.to;
+                }
+                RESIZE.compareAndSet(this, current, null);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves one bin to the new table, splitting its chain between the bins i and i + n of the
+     * new table. The nodes are copied rather than relinked, so readers still walking the old
+     * chain are not disturbed. The old bin is then replaced by the forwarding node.
+     * @param current the resize in progress.
+     * @param i the bin to be moved.
+     */
+    private void moveBin(Resize<K, V> current, int i) {
+        Node<K, V>[] tab = current.from;
+        int n = tab.length;
+        for (; ; ) {
+            Node<K, V> first = binAt(tab, i);
+            if (first == null) {
+                if (casBin(tab, i, null, current.forwarding)) return;
+            } else if (first.hash == MOVED) {
+                return;
+            } else {
+                synchronized (first) {
+                    if (binAt(tab, i) == first && first.hash >= 0) {
+                        Node<K, V> low = null;
+                        Node<K, V> high = null;
+                        for (Node<K, V> e = first; e != null; e = e.next) {
+                            if ((e.hash & n) == 0) low = new Node<>(e.hash, e.key, e.value, low);
+                            else high = new Node<>(e.hash, e.key, e.value, high);
+                        }
+                        setBin(current.to, i, low);
+                        setBin(current.to, i + n, high);
+                        setBin(tab, i, current.forwarding);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits every pair of a bin, following forwarding nodes into both bins of the next table
+     * that received its entries.
+     * @param tab the table holding the bin.
+     * @param i the bin to be visited.
+     * @param action called for each key-value pair.
+     */
+    private void visitBin(Node<K, V>[] tab, int i, BiConsumer<? super K, ? super V> action) {
+        Node<K, V> e = binAt(tab, i);
+        if (e != null && e.hash == MOVED) {
+            Node<K, V>[] next = ((ForwardingNode<K, V>) e).resize.to;
+            visitBin(next, i, action);
+            visitBin(next, i + tab.length, action);
+            return;
+        }
+        for (; e != null; e = e.next) {
+            V value = e.value;
+            if (e.hash >= 0 && value != null) action.accept(e.key, value);
+        }
+    }
+
+    /**
+     * Creates an empty table.
+     * @param length number of bins.
+     * @return an array of empty bins.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static <K, V> Node<K, V>[] newTable(int length) {
+        return (Node<K, V>[]) new Node[length];
+    }
+
+    /**
+     * Reads a bin with acquire semantics.
+     */
+    @SuppressWarnings({"unchecked"})
+    private static <K, V> Node<K, V> binAt(Node<K, V>[] tab, int i) {
+        return (Node<K, V>) BIN.getAcquire(tab, i);
+    }
+
+    /**
+     * Replaces a bin if it still holds the expected node.
+     */
+    private static <K, V> boolean casBin(Node<K, V>[] tab, int i, Node<K, V> expected, Node<K, V> node) {
+        return BIN.compareAndSet(tab, i, expected, node);
+    }
+
+    /**
+     * Writes a bin with release semantics. Only called while holding the lock of the bin.
+     */
+    private static <K, V> void setBin(Node<K, V>[] tab, int i, Node<K, V> node) {
+        BIN.setRelease(tab, i, node);
+    }
+
+    /**
+     * A key-value pair of a bin. The key and hash never change, while the value and the link
+     * to the next node are volatile so that readers always see complete nodes.
+     */
+    static class Node<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile Node<K, V> next;
+
+        /**
+         * The constructor provides an assignment to every field.
+         * @param hash the spread hash of the key.
+         * @param key the key of the pair.
+         * @param value the value of the pair.
+         * @param next the next node of the bin.
+         */
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Placed in the bins of the old table that were already moved, pointing to the resize that
+     * holds the next table.
+     */
+    static final class ForwardingNode<K, V> extends Node<K, V> {
+        final Resize<K, V> resize;
+
+        ForwardingNode(Resize<K, V> resize) {
+            super(MOVED, null, null, null);
+            this.resize = resize;
+        }
+    }
+
+    /**
+     * The state of one resize: both tables, the next stride to be claimed, and the number of
+     * bins not yet moved.
+     */
+    static final class Resize<K, V> {
+        final Node<K, V>[] from;
+        final Node<K, V>[] to;
+        final ForwardingNode<K, V> forwarding;
+        final AtomicInteger nextIndex;
+        final AtomicInteger remaining;
+        final int stride;
+
+        Resize(Node<K, V>[] from, Node<K, V>[] to) {
+            this.from = from;
+            this.to = to;
+            this.forwarding = new ForwardingNode<>(this);
+            this.nextIndex = new AtomicInteger(from.length);
+            this.remaining = new AtomicInteger(from.length);
+            int processors = Runtime.getRuntime().availableProcessors();
+            this.stride = Math.max(MIN_TRANSFER_STRIDE, from.length / (8 * processors));
+        }
+    }
+}
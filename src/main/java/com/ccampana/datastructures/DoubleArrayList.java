@@ -0,0 +1,297 @@
+package com.ccampana.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * DoubleArrayList is an {@link ArrayList} specialized for double values. The values are kept in an
+ * double[], so no element is boxed: each one takes 8 bytes instead of a reference plus an Integer
+ * object, and adding a value allocates nothing unless the array has to grow.
+ * </p>
+ * <p>
+ * It mirrors the operations of the interface {@link List}, adds bulk additions and reductions,
+ * and gives direct access to its underlining array, for loops that cannot afford a method call
+ * per element.
+ * </p>
+ * <p>
+ * When the JVM runs with the module jdk.incubator.vector, searches and reductions go through
+ * {@link VectorKernels}, which compare or add a whole vector register of values per step;
+ * otherwise they fall back to scalar loops. See {@link Simd}.
+ * </p>
+ * <p>
+ * Its initial capacity is 10 as well as its growth rate is 1.5.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link DoubleArrayList#add(double element)} - adds a value at the end of the list.</li>
+ * <li>{@link DoubleArrayList#addAll(double[] elements)} - adds every value of an array, growing the
+ * list once.</li>
+ * <li>{@link DoubleArrayList#get(int index)} - returns the value at an index.</li>
+ * <li>{@link DoubleArrayList#set(int index, double element)} - replaces the value at an index.</li>
+ * <li>{@link DoubleArrayList#remove(double element)} - removes the first occurrence of a value.</li>
+ * <li>{@link DoubleArrayList#removeAt(int index)} - removes the value at an index.</li>
+ * <li>{@link DoubleArrayList#indexOf(double element)} - returns the index of a value.</li>
+ * <li>{@link DoubleArrayList#contains(double element)} - checks whether a value is in the list.</li>
+ * <li>{@link DoubleArrayList#count(double element)} - counts the occurrences of a value.</li>
+ * <li>{@link DoubleArrayList#sum()}, {@link DoubleArrayList#min()}, {@link DoubleArrayList#max()} -
+ * reductions over the values.</li>
+ * <li>{@link DoubleArrayList#toArray()} - copies the values into an array.</li>
+ * <li>{@link DoubleArrayList#array()} - returns the underlining array.</li>
+ * <li>{@link DoubleArrayList#size()} - Returns the number of values.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see ArrayList
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class DoubleArrayList {
+    /**
+     * Initial Capacity of the array. Default value is 10.
+     */
+    final static int INITIAL_CAPACITY = 10;
+    /**
+     * Growth rate of the array, as it grows. Default value is 1.5
+     */
+    final static double GROWTH_FACTOR = 1.5;
+    /**
+     * Used in the method indexOf to denote a value that is not present in the list.
+     */
+    final static int NOT_FOUND = -1;
+
+    /**
+     * The underlining array. Only its first {@link DoubleArrayList#size} values belong to the list.
+     */
+    double[] array;
+    /**
+     * Keeps the current number of values in the array.
+     */
+    int size;
+
+    /**
+     * The default constructor, it only calls the method {@link DoubleArrayList#clear()}.
+     */
+    public DoubleArrayList() {
+        clear();
+    }
+
+    /**
+     * Constructor that copies an array of values into the list.
+     * @param elements the values to be added.
+     */
+    public DoubleArrayList(double[] elements) {
+        array = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, elements.length));
+        size = elements.length;
+    }
+
+    /**
+     * Adds a value at the end of the list, growing the array if it is full.
+     * @param element value to be added.
+     */
+    public void add(double element) {
+        if (size == array.length) grow(size + 1);
+        array[size++] = element;
+    }
+
+    /**
+     * Adds every value of an array at the end of the list, with a single copy.
+     * @param elements values to be added.
+     */
+    public void addAll(double[] elements) {
+        if (size + elements.length > array.length) grow(size + elements.length);
+        System.arraycopy(elements, 0, array, size, elements.length);
+        size += elements.length;
+    }
+
+    /**
+     * Returns the value at an index.
+     * @param index index of the value.
+     * @return the value at the index.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public double get(int index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        return array[index];
+    }
+
+    /**
+     * Replaces the value at an index.
+     * @param index index of the value.
+     * @param element the new value.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public void set(int index, double element) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        array[index] = element;
+    }
+
+    /**
+     * Removes the first occurrence of a value, shifting the following values back.
+     * @param element value to be removed.
+     * @throws NoSuchElementException if the value is not in the list.
+     */
+    public void remove(double element) throws NoSuchElementException {
+        int index = indexOf(element);
+        if (index == NOT_FOUND) throw new NoSuchElementException();
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        --size;
+    }
+
+    /**
+     * Removes the value at an index, shifting the following values back.
+     * @param index index of the value.
+     * @return the value removed.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public double removeAt(int index) throws NoSuchElementException {
+        double element = get(index);
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        --size;
+        return element;
+    }
+
+    /**
+     * Removes every value, keeping a new array of the initial capacity.
+     */
+    public void clear() {
+        array = new double[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Finds the index of the first occurrence of a value. Values are compared as by
+     * {@link Double#compare(double, double)}, so NaN can be found, and 0.0 and -0.0 differ.
+     * @param element value to be searched.
+     * @return the index of the value, or {@link DoubleArrayList#NOT_FOUND}.
+     */
+    public int indexOf(double element) {
+        if (Simd.ENABLED && !Double.isNaN(element)) return VectorKernels.indexOf(array, size, element);
+        for (int i = 0; i < size; i++) {
+            if (Double.compare(array[i], element) == 0) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Checks whether a value is in the list. Values are compared as in {@link DoubleArrayList#indexOf(double)}.
+     * @param element value to be searched.
+     * @return true if the value is in the list.
+     */
+    public boolean contains(double element) {
+        return indexOf(element) != NOT_FOUND;
+    }
+
+    /**
+     * Counts the occurrences of a value. Values are compared as in {@link DoubleArrayList#indexOf(double)}.
+     * @param element value to be counted.
+     * @return the number of occurrences.
+     */
+    public int count(double element) {
+        if (Simd.ENABLED && !Double.isNaN(element)) return VectorKernels.count(array, size, element);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (Double.compare(array[i], element) == 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds all the values. Rounding errors may build up over long lists, and the vector kernels
+     * add the values in a different order than the scalar loop, so the last bits of the result
+     * may depend on whether they are used.
+     * @return the sum of the values, 0 if the list is empty.
+     */
+    public double sum() {
+        if (Simd.ENABLED) return VectorKernels.sum(array, size);
+        double sum = 0;
+        for (int i = 0; i < size; i++) sum += array[i];
+        return sum;
+    }
+
+    /**
+     * Returns the smallest value. If any value is NaN, the result is NaN.
+     * @return the smallest value.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public double min() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        if (Simd.ENABLED) return VectorKernels.min(array, size);
+        double min = array[0];
+        for (int i = 1; i < size; i++) min = Math.min(min, array[i]);
+        return min;
+    }
+
+    /**
+     * Returns the largest value. If any value is NaN, the result is NaN.
+     * @return the largest value.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public double max() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        if (Simd.ENABLED) return VectorKernels.max(array, size);
+        double max = array[0];
+        for (int i = 1; i < size; i++) max = Math.max(max, array[i]);
+        return max;
+    }
+
+    /**
+     * Copies the values into a new array of exactly the size of the list.
+     * @return an array with the values.
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Returns the underlining array, without copying it. Only its first {@link DoubleArrayList#size()}
+     * values belong to the list, and it is replaced whenever the list grows, so it must be fetched
+     * again after any addition.
+     * @return the underlining array.
+     */
+    public double[] array() {
+        return array;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * If size is 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a string with all the values of the list.
+     * @return a string with all the values of the list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) sb.append(array[i]).append(" ");
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Grows the array by the growth factor, or more if needed.
+     * @param minimumCapacity the capacity the array must reach.
+     */
+    private void grow(int minimumCapacity) {
+        int capacity = Math.max(minimumCapacity, (int) (array.length * GROWTH_FACTOR));
+        array = Arrays.copyOf(array, Math.max(capacity, INITIAL_CAPACITY));
+    }
+}
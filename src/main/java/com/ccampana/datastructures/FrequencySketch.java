@@ -0,0 +1,144 @@
+package com.ccampana.datastructures;
+
+/**
+ * <p>
+ * FrequencySketch estimates how often each key has been seen recently, in constant memory. It is a
+ * Count-Min sketch of 4-bit counters: each key increments one counter in each of four rows, and its
+ * estimated frequency is the smallest of those counters, which can only overestimate.
+ * </p>
+ * <p>
+ * Sixteen counters are packed in each long. Once the number of increments reaches ten times the
+ * expected number of keys, every counter is halved, so that old popularity fades away. The table
+ * starts small and grows with the number of keys, through
+ * {@link FrequencySketch#ensureCapacity(long)}.
+ * </p>
+ * <p>
+ * It is used by {@link BoundedCache} to decide whether a new entry is worth more than the one it
+ * would evict.
+ * </p>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see BoundedCache
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+class FrequencySketch {
+    /**
+     * Largest value of a counter.
+     */
+    final static int MAXIMUM_COUNT = 15;
+    /**
+     * Keeps the lower three bits of every counter when halving them.
+     */
+    final static long RESET_MASK = 0x7777777777777777L;
+    /**
+     * Odd multipliers used to derive the row of each counter.
+     */
+    final static long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * The counters, sixteen per long.
+     */
+    long[] table;
+    /**
+     * Number of increments since the last reset.
+     */
+    int additions;
+    /**
+     * Number of increments that triggers a reset.
+     */
+    int sampleSize;
+
+    /**
+     * Creates a sketch sized for a number of keys.
+     * @param expectedKeys the number of keys expected to be tracked.
+     */
+    FrequencySketch(long expectedKeys) {
+        ensureCapacity(expectedKeys);
+    }
+
+    /**
+     * Grows the sketch to track a number of keys, if its table is too small for them. The table
+     * length is a power of two, so it only grows when the number of keys doubles; growing forgets
+     * every count, and sets the sample size to ten times the number of keys.
+     * @param expectedKeys the number of keys expected to be tracked.
+     */
+    void ensureCapacity(long expectedKeys) {
+        int length = (int) Math.min(1 << 30, Math.max(8, Long.highestOneBit(Math.max(1, expectedKeys - 1)) << 1));
+        if (table != null && table.length >= length) return;
+        table = new long[length];
+        sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(1, expectedKeys));
+        additions = 0;
+    }
+
+    /**
+     * Returns the estimated number of times a hash was seen, up to 15.
+     * @param hash the hash of the key.
+     * @return the estimated frequency.
+     */
+    int frequency(int hash) {
+        int h = spread(hash);
+        int frequency = MAXIMUM_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int offset = counterOffset(h, row);
+            int count = (int) ((table[indexOf(h, row)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one more occurrence of a hash, halving every counter when the sample is full.
+     * @param hash the hash of the key.
+     */
+    void increment(int hash) {
+        int h = spread(hash);
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(h, row);
+            int offset = counterOffset(h, row);
+            if (((table[index] >>> offset) & 0xfL) != MAXIMUM_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) reset();
+    }
+
+    /**
+     * Halves every counter.
+     */
+    void reset() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions /= 2;
+    }
+
+    /**
+     * Chooses the long holding the counter of a row.
+     */
+    private int indexOf(int h, int row) {
+        long hash = (h + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return (int) hash & (table.length - 1);
+    }
+
+    /**
+     * Chooses the counter of a row within its long, using a different nibble of the hash per row.
+     */
+    private static int counterOffset(int h, int row) {
+        return ((h >>> (row << 3)) & 0xf) << 2;
+    }
+
+    /**
+     * Mixes a hash so that weak hash functions still spread over the table.
+     */
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
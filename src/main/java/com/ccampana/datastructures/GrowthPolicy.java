@@ -0,0 +1,36 @@
+package com.ccampana.datastructures;
+
+/**
+ * Decides how much the array of an {@link ArrayList} grows when it is full.
+ */
+public interface GrowthPolicy {
+    /**
+     * Returns the next capacity of a full array. The list never grows by less than one element,
+     * nor by less than a bulk addition needs, whatever the policy returns.
+     * @param capacity the current capacity.
+     * @return the capacity after growing.
+     */
+    int nextCapacity(int capacity);
+
+    /**
+     * Multiplies the capacity by a factor.
+     * @param factor the growth factor, greater than 1.
+     * @return a policy growing by the factor.
+     * @throws IllegalArgumentException if the factor is not greater than 1.
+     */
+    static GrowthPolicy factor(double factor) {
+        if (!(factor > 1)) throw new IllegalArgumentException();
+        return capacity -> (int) Math.min(Integer.MAX_VALUE - 8, (long) (capacity * factor));
+    }
+
+    /**
+     * Adds a fixed number of elements to the capacity, for lists whose growth is known ahead.
+     * @param step the number of elements added by each growth, positive.
+     * @return a policy growing by the step.
+     * @throws IllegalArgumentException if the step is not positive.
+     */
+    static GrowthPolicy increment(int step) {
+        if (step <= 0) throw new IllegalArgumentException();
+        return capacity -> (int) Math.min(Integer.MAX_VALUE - 8, (long) capacity + step);
+    }
+}
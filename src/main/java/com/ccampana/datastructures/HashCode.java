@@ -2,4 +2,17 @@ package com.ccampana.datastructures;
 
 public interface HashCode<K> {
     int hashCode(K key);
+
+    /**
+     * Tells whether two keys are equal. The maps built on this interface compare keys through it,
+     * so it must agree with {@link HashCode#hashCode(Object)}: equal keys must have equal hash
+     * codes. By default it calls the equals method of the keys; keys whose equals is identity,
+     * such as arrays, override it to compare their content.
+     * @param a a key.
+     * @param b another key.
+     * @return true if the keys are equal.
+     */
+    default boolean keyEquals(K a, K b) {
+        return a.equals(b);
+    }
 }
@@ -0,0 +1,83 @@
+package com.ccampana.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Ready-made implementations of the interface {@link HashCode} for common types. They favor speed
+ * over spreading, since {@link HashMap} mixes every hash code before using it.
+ */
+public final class HashCodes {
+    /**
+     * Reads four bytes of an array at once.
+     */
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Uses the hash code of the String, which is computed once and then cached by the String.
+     */
+    public static final HashCode<String> STRING = String::hashCode;
+
+    /**
+     * Uses the value of the Integer.
+     */
+    public static final HashCode<Integer> INTEGER = Integer::intValue;
+
+    /**
+     * Folds the two halves of the Long.
+     */
+    public static final HashCode<Long> LONG = key -> (int) (key ^ (key >>> 32));
+
+    /**
+     * Hashes the content of a byte array with MurmurHash3, four bytes per step, and compares
+     * arrays by their content, so a lookup may use a different array holding the same bytes.
+     */
+    public static final HashCode<byte[]> BYTE_ARRAY = new HashCode<>() {
+        @Override
+        public int hashCode(byte[] key) {
+            return murmur3(key);
+        }
+
+        @Override
+        public boolean keyEquals(byte[] a, byte[] b) {
+            return Arrays.equals(a, b);
+        }
+    };
+
+    private HashCodes() {
+    }
+
+    /**
+     * The 32-bit MurmurHash3 of a byte array, with a seed of zero.
+     * @param bytes the array to be hashed.
+     * @return the hash of the content of the array.
+     */
+    @SuppressWarnings({"fallthrough"})
+    private static int murmur3(byte[] bytes) {
+        int hash = 0;
+        int blocks = bytes.length & ~3;
+        for (int i = 0; i < blocks; i += 4) {
+            hash ^= mixBlock((int) INTS.get(bytes, i));
+            hash = Integer.rotateLeft(hash, 13) * 5 + 0xe6546b64;
+        }
+        int tail = 0;
+        switch (bytes.length & 3) {
+            case 3:
+                tail ^= (bytes[blocks + 2] & 0xff) << 16;
+                // fall through
+            case 2:
+                tail ^= (bytes[blocks + 1] & 0xff) << 8;
+                // fall through
+            case 1:
+                tail ^= bytes[blocks] & 0xff;
+                hash ^= mixBlock(tail);
+        }
+        return HashMap.mix(hash ^ bytes.length);
+    }
+
+    private static int mixBlock(int block) {
+        return Integer.rotateLeft(block * 0xcc9e2d51, 15) * 0x1b873593;
+    }
+}
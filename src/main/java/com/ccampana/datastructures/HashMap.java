@@ -1,6 +1,14 @@
 package com.ccampana.datastructures;
 
+import java.util.AbstractMap;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * <p>
@@ -8,9 +16,9 @@ import java.util.NoSuchElementException;
  * array list using a translator function called a hash function that provides an easy map between
  * elements and their respective position (buckets).
  * </p>
- * Currently, this implementation resolves conflicts using linear probing;
- * for each position (bucket), there is another array list with elements, and the element
- * conflicted is added to that array list.
+ * Currently, this implementation resolves conflicts using separate chaining;
+ * each position (bucket) holds a chain of entries, and the element
+ * conflicted is linked to that chain.
  * <p>
  * The hash function is not dealt with here. Instead, it is provided an interface {@link HashCode}
  * containing a single method with the same name. There is a necessity to implement this interface
@@ -20,12 +28,31 @@ import java.util.NoSuchElementException;
  * <p>
  * The maximum load within the hash map is 0.75 unless defined differently through the constructor.
  * <p>
- * There are two constructors. The default constructor initializes the variables, whereas the other
- * allows for a custom maximum load factor.
+ * Every hash code given by the hash function goes through {@link HashMap#mix(int)}, a bit-mixing
+ * finalizer, so that weak hash functions still spread over the table, and the tables have a
+ * power-of-two length, so that a mask replaces the modulo. The mixed hash of each key is kept next
+ * to it: lookups only compare keys whose hash matches, and growing the table never calls the
+ * hash function again. Ready-made hash functions for common types are found in {@link HashCodes}.
+ * <p>
+ * The default constructor initializes the variables, whereas the others allow for a custom
+ * maximum load factor, collision resolution strategy or resizing strategy.
+ * <p>
+ * When the load factor goes over the maximum load, the table grows. By default, every entry is
+ * moved to the new table right away. With {@link Resizing#INCREMENTAL}, the old and the new tables
+ * coexist instead, and each following operation moves a bounded number of old buckets, so no single
+ * operation pays for the whole rehash.
  * <p>
  * Each pair of keys and values is held by an inner class responsible for managing the value's
  * retrieval and update.
  * <p>
+ * Alternatively, the map can be created in open-addressing mode through
+ * {@link HashMap#HashMap(HashCode, double, Probing)} with {@link Probing#ROBIN_HOOD}. In that mode
+ * there are no buckets nor entries; keys and values are kept in two flat parallel arrays whose
+ * length is a power of two, collisions are resolved through Robin Hood linear probing, and removals
+ * use backward-shift deletion, so the table never holds tombstones. A lookup touches a few
+ * consecutive slots instead of walking nested lists, and a put allocates nothing unless the table
+ * has to grow.
+ * <p>
  * <ul>
  * Supported operations:
  * <li>{@link HashMap#put(K key, V value)} - adds a key-value pair to the hash map, using linear
@@ -35,16 +62,34 @@ import java.util.NoSuchElementException;
  * <li>{@link HashMap#values()} - returns a list of all values within the hash map.</li>
  * <li>{@link HashMap#get(K key)} - using a key as a parameter,
  * returns its corresponding value.</li>
+ * <li>{@link HashMap#getOrDefault(K key, V defaultValue)} - returns the value associated with a
+ * key, or a default value.</li>
+ * <li>{@link HashMap#containsKey(K key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link HashMap#forEach(BiConsumer action)} - performs an action for each key-value
+ * pair.</li>
+ * <li>{@link HashMap#forEachKey(Consumer action)} - performs an action for each key.</li>
+ * <li>{@link HashMap#removeIf(BiPredicate filter)} - removes the pairs matching a
+ * predicate.</li>
+ * <li>{@link HashMap#putAll(HashMap other)} - adds every pair of another map.</li>
+ * <li>{@link HashMap#getAll(Object[] keys, Object[] out)} - looks up several keys at
+ * once.</li>
+ * <li>{@link HashMap#entrySpliterator()}, {@link HashMap#keySpliterator()},
+ * {@link HashMap#valueSpliterator()} - spliterators over the table, split by ranges of buckets or
+ * slots.</li>
+ * <li>{@link HashMap#stream()}, {@link HashMap#parallelStream()} - streams of the key-value
+ * pairs.</li>
  * <li>{@link HashMap#size()} - Returns the size of the hash map.</li>
  * <li>{@link HashMap#updateLoadFactor()} - it updates the load factor based on the size and the
  * length of the buckets.</li>
- * <li>{@link HashMap#getIndex(K key)} - gets the index in the underlining array
- * list based on the key.</li>
+ * <li>{@link HashMap#hash(K key)} - computes the mixed hash of a key.</li>
+ * <li>{@link HashMap#getIndex(int hash, Entry[] table)} - gets the index in the underlining
+ * table based on the hash of a key.</li>
  * <li>{@link HashMap#checkGrowth()} - Checks if it is necessary to increase the size of the hash
  * map if the load factor is greater than the maximum load.</li>
  * <li>{@link HashMap#grow()} - increases the size of the hash map. It is only called by the
- * checkGrowth method.
- * .</li>
+ * checkGrowth method.</li>
+ * <li>{@link HashMap#migrate()} - moves a few buckets to the new table while a resize is in
+ * progress.</li>
  * </ul>
  * <p>
  * This project is licensed under Creative Commons Attribution 4.0 International License.
@@ -65,14 +110,79 @@ public class HashMap<K, V> {
      */
     final double DEFAULT_MAX_LOAD = 0.75;
     /**
-     * Underlining array list to handle the hash map.
+     * Initial number of buckets of the chained table. Must be a power of two.
+     */
+    final static int INITIAL_BUCKETS = 16;
+    /**
+     * Growth rate of the chained table. It must keep the length a power of two.
+     */
+    final static int GROWTH_FACTOR = 2;
+    /**
+     * Number of old buckets moved to the new table by each operation while an incremental
+     * resize is in progress.
+     */
+    final static int MIGRATION_STEP = 8;
+    /**
+     * Number of keys whose lookups are interleaved by {@link HashMap#getAll(Object[], Object[])}.
+     */
+    final static int BATCH = 16;
+    /**
+     * Initial number of slots of the open-addressing table. Must be a power of two.
+     */
+    final static int INITIAL_SLOTS = 16;
+    /**
+     * Marks an empty slot in {@link HashMap#probeLengths}.
+     */
+    final static int EMPTY = 0;
+    /**
+     * Returned by {@link HashMap#findSlot(K key, int hash)} when the key is not in the table.
+     */
+    final static int NOT_FOUND = -1;
+    /**
+     * Underlining table to handle the hash map. Each bucket holds the head of a chain of
+     * entries linked through {@link Entry#next}.
+     */
+    Entry[] buckets;
+    /**
+     * The table being emptied while an incremental resize is in progress, null otherwise.
+     * Its buckets below {@link HashMap#migrated} have already been moved to
+     * {@link HashMap#buckets}.
      */
-    ArrayList<ArrayList<Entry>> buckets;
+    Entry[] oldBuckets;
+    /**
+     * Number of buckets of {@link HashMap#oldBuckets} already moved to the new table.
+     */
+    int migrated;
     /**
      * The hash function interface. Must be implemented before utilizing any operation, it is
      * required by the default constructor.
      */
     HashCode<K> hashFunction;
+    /**
+     * The collision resolution strategy chosen at construction.
+     */
+    final Probing probing;
+    /**
+     * How the chained table is resized, chosen at construction.
+     */
+    final Resizing resizing;
+    /**
+     * Keys of the open-addressing table, only used with {@link Probing#ROBIN_HOOD}.
+     */
+    Object[] slotKeys;
+    /**
+     * Values of the open-addressing table, parallel to {@link HashMap#slotKeys}.
+     */
+    Object[] slotValues;
+    /**
+     * Distance of each slot from its home position plus one, {@link HashMap#EMPTY} when the slot
+     * is free. Parallel to {@link HashMap#slotKeys}.
+     */
+    int[] probeLengths;
+    /**
+     * Mixed hash of the key of each slot, parallel to {@link HashMap#slotKeys}.
+     */
+    int[] slotHashes;
 
     /**
      * Private field that defines the maximum load of the hash map.
@@ -92,12 +202,7 @@ public class HashMap<K, V> {
      * @param hashCode a class that implements the interface HashCode.
      */
     public HashMap(HashCode<K> hashCode) {
-        buckets = new ArrayList<>();
-        hashFunction = hashCode;
-        loadFactor = 0;
-        maximumLoad = DEFAULT_MAX_LOAD;
-        size = 0;
-
+        this(hashCode, Probing.CHAINING, Resizing.ALL_AT_ONCE);
     }
 
     /**
@@ -110,74 +215,138 @@ public class HashMap<K, V> {
         this.maximumLoad = maximumLoad;
     }
 
+    /**
+     * This constructor allows for a custom maximum load and collision resolution strategy.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param maximumLoad a double variable that defines the maximum load. In Robin Hood mode
+     *                    it must be lower than 1.
+     * @param probing the collision resolution strategy.
+     * @throws IllegalArgumentException if the maximum load is not supported by the strategy.
+     */
+    public HashMap(HashCode<K> hashCode, double maximumLoad, Probing probing) {
+        this(hashCode, probing, Resizing.ALL_AT_ONCE);
+        if (maximumLoad <= 0 || (probing == Probing.ROBIN_HOOD && maximumLoad >= 1)) {
+            throw new IllegalArgumentException();
+        }
+        this.maximumLoad = maximumLoad;
+    }
+
+    /**
+     * This constructor allows for a custom maximum load and resizing strategy of the chained
+     * table. With {@link Resizing#INCREMENTAL}, growing the map no longer rehashes every entry
+     * at once: the old and the new tables coexist, and every put, get and remove moves at most
+     * {@link HashMap#MIGRATION_STEP} old buckets until the old table is empty.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param maximumLoad a double variable that defines the maximum load.
+     * @param resizing the resizing strategy.
+     * @throws IllegalArgumentException if the maximum load is not positive.
+     */
+    public HashMap(HashCode<K> hashCode, double maximumLoad, Resizing resizing) {
+        this(hashCode, Probing.CHAINING, resizing);
+        if (maximumLoad <= 0) throw new IllegalArgumentException();
+        this.maximumLoad = maximumLoad;
+    }
+
+    /**
+     * Initializes the hash function, the strategies and the table used by them.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param probing the collision resolution strategy.
+     * @param resizing the resizing strategy of the chained table.
+     */
+    private HashMap(HashCode<K> hashCode, Probing probing, Resizing resizing) {
+        this.probing = probing;
+        this.resizing = resizing;
+        if (probing == Probing.ROBIN_HOOD) {
+            slotKeys = new Object[INITIAL_SLOTS];
+            slotValues = new Object[INITIAL_SLOTS];
+            probeLengths = new int[INITIAL_SLOTS];
+            slotHashes = new int[INITIAL_SLOTS];
+        } else {
+            buckets = newTable(INITIAL_BUCKETS);
+        }
+        hashFunction = hashCode;
+        loadFactor = 0;
+        maximumLoad = DEFAULT_MAX_LOAD;
+        size = 0;
+    }
+
     /**
      * Adds a key-value pair to the com.ccampana.datastructures.HashMap.
      * @param key the key used for indexing.
      * @param value value to be associated with the key.
      */
     public void put(K key, V value) {
-        checkGrowth();
-        int position = getIndex(key);
-        if (buckets.get(position) == null) {
-            ArrayList<Entry> entries = new ArrayList<>();
-            entries.add(new Entry(key, value));
-            buckets.add(position, entries);
-            ++size;
-            updateLoadFactor();
+        int hash = hash(key);
+        if (probing == Probing.ROBIN_HOOD) {
+            putSlot(key, value, hash);
             return;
         }
-        ArrayList<Entry> entries = buckets.get(position);
-        int previousPosition = -1;
-        for (int i = 0; i < entries.length(); i++) {
-            if (entries.get(i) != null && entries.get(i).key.equals(key)) {
-                previousPosition = i;
+        checkGrowth();
+        migrate();
+        Entry[] table = tableOf(hash);
+        int position = getIndex(hash, table);
+        for (Entry entry = table[position]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && keysEqual(entry.key, key)) {
+                entry.setValue(value);
+                return;
             }
         }
-        if (previousPosition != -1) {
-            buckets.get(position).get(previousPosition).setValue(value);
-        } else {
-            buckets.get(position).add(new Entry(key, value));
-            ++size;
-
-
-        }
-
+        Entry entry = new Entry(key, value, hash);
+        entry.next = table[position];
+        table[position] = entry;
+        ++size;
         updateLoadFactor();
-
     }
 
     /**
      * Removes a value based on a given key.
      * @param key of the object to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
      */
     public void remove(K key) {
-        ArrayList<Entry> entries = buckets.get(getIndex(key));
-        if (entries.length() == 1) {
-            buckets.remove(buckets.get(getIndex(key)));
-            --size;
-        } else {
-            for (int i = 0; i < entries.length(); i++) {
-                if (entries.get(i) != null && entries.get(i).getKey().equals(key)) {
-                    entries.remove(entries.get(i));
-                    --size;
-                }
+        if (probing == Probing.ROBIN_HOOD) {
+            removeSlot(key);
+            return;
+        }
+        migrate();
+        int hash = hash(key);
+        Entry[] table = tableOf(hash);
+        int position = getIndex(hash, table);
+        Entry previous = null;
+        for (Entry entry = table[position]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && keysEqual(entry.key, key)) {
+                if (previous == null) table[position] = entry.next;
+                else previous.next = entry.next;
+                --size;
+                updateLoadFactor();
+                return;
             }
+            previous = entry;
         }
-        updateLoadFactor();
+        throw new NoSuchElementException();
     }
 
     /**
      * Returns all the hash map keys in a list.
      * @return a list containing all the keys.
      */
+    @SuppressWarnings({"unchecked"})
     public List<K> keys() {
         List<K> keys = new ArrayList<>();
-        for (int i = 0; i < buckets.length(); i++) {
-            for (int j = 0; buckets.get(i) != null && j < buckets.get(i).length(); j++) {
-                if (buckets.get(i).get(j) != null) keys.add(buckets.get(i).get(j).getKey());
+        if (probing == Probing.ROBIN_HOOD) {
+            for (int i = 0; i < slotKeys.length; i++) {
+                if (probeLengths[i] != EMPTY) keys.add((K) slotKeys[i]);
             }
+            return keys;
+        }
+        if (oldBuckets != null) {
+            for (int i = migrated; i < oldBuckets.length; i++) {
+                for (Entry entry = oldBuckets[i]; entry != null; entry = entry.next) keys.add(entry.getKey());
+            }
+        }
+        for (Entry bucket : buckets) {
+            for (Entry entry = bucket; entry != null; entry = entry.next) keys.add(entry.getKey());
         }
-
         return keys;
     }
 
@@ -185,14 +354,23 @@ public class HashMap<K, V> {
      * Returns all the hash map values in a list.
      * @return a list containing all the values.
      */
+    @SuppressWarnings({"unchecked"})
     public List<V> values() {
         List<V> values = new ArrayList<>();
-        for (int i = 0; i < buckets.length(); i++) {
-            for (int j = 0; buckets.get(i) != null && j < buckets.get(i).length(); j++) {
-                if (buckets.get(i).get(j) != null) values.add(buckets.get(i).get(j).getValue());
+        if (probing == Probing.ROBIN_HOOD) {
+            for (int i = 0; i < slotValues.length; i++) {
+                if (probeLengths[i] != EMPTY) values.add((V) slotValues[i]);
             }
+            return values;
+        }
+        if (oldBuckets != null) {
+            for (int i = migrated; i < oldBuckets.length; i++) {
+                for (Entry entry = oldBuckets[i]; entry != null; entry = entry.next) values.add(entry.getValue());
+            }
+        }
+        for (Entry bucket : buckets) {
+            for (Entry entry = bucket; entry != null; entry = entry.next) values.add(entry.getValue());
         }
-
         return values;
     }
 
@@ -203,15 +381,230 @@ public class HashMap<K, V> {
      * @return a value associated with the given key.
      * @see NoSuchElementException
      */
+    @SuppressWarnings({"unchecked"})
     public V get(K key) {
-        ArrayList<Entry> entries = buckets.get(getIndex(key));
-        if (entries.length() == 1) return entries.get(0).getValue();
-        for (int i = 0; i < entries.length(); i++) {
-            if (entries.get(i) != null && entries.get(i).getKey().equals(key)) {
-                return entries.get(i).getValue();
+        if (probing == Probing.ROBIN_HOOD) {
+            int slot = findSlot(key, hash(key));
+            if (slot == NOT_FOUND) throw new NoSuchElementException();
+            return (V) slotValues[slot];
+        }
+        Entry entry = findEntry(key);
+        if (entry == null) throw new NoSuchElementException();
+        return entry.getValue();
+    }
+
+    /**
+     * Returns the value associated with a key, or a default value if the key is not in the map.
+     * Unlike {@link HashMap#get(K key)}, a missing key costs no exception.
+     * @param key to be searched.
+     * @param defaultValue returned when the key is not in the map.
+     * @return the value associated with the key, or the default value.
+     */
+    @SuppressWarnings({"unchecked"})
+    public V getOrDefault(K key, V defaultValue) {
+        if (probing == Probing.ROBIN_HOOD) {
+            int slot = findSlot(key, hash(key));
+            return slot == NOT_FOUND ? defaultValue : (V) slotValues[slot];
+        }
+        Entry entry = findEntry(key);
+        return entry == null ? defaultValue : entry.getValue();
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(K key) {
+        if (probing == Probing.ROBIN_HOOD) return findSlot(key, hash(key)) != NOT_FOUND;
+        return findEntry(key) != null;
+    }
+
+    /**
+     * Performs an action for each key-value pair, without building any intermediate list.
+     * The map must not be modified by the action.
+     * @param action called with the key and the value of each pair.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (probing == Probing.ROBIN_HOOD) {
+            for (int i = 0; i < slotKeys.length; i++) {
+                if (probeLengths[i] != EMPTY) action.accept((K) slotKeys[i], (V) slotValues[i]);
             }
+            return;
         }
-        throw new NoSuchElementException();
+        if (oldBuckets != null) {
+            for (int i = migrated; i < oldBuckets.length; i++) {
+                for (Entry entry = oldBuckets[i]; entry != null; entry = entry.next) action.accept(entry.key, entry.value);
+            }
+        }
+        for (Entry bucket : buckets) {
+            for (Entry entry = bucket; entry != null; entry = entry.next) action.accept(entry.key, entry.value);
+        }
+    }
+
+    /**
+     * Performs an action for each key, without building any intermediate list.
+     * The map must not be modified by the action.
+     * @param action called with each key.
+     */
+    public void forEachKey(Consumer<? super K> action) {
+        forEach((key, value) -> action.accept(key));
+    }
+
+    /**
+     * Removes every key-value pair matching a predicate, in a single pass over the table.
+     * @param filter returns true for the pairs to be removed.
+     * @return the number of pairs removed.
+     */
+    @SuppressWarnings({"unchecked"})
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        int before = size;
+        if (probing == Probing.ROBIN_HOOD) {
+            int mask = slotKeys.length - 1;
+            int start = 0;
+            while (probeLengths[start] != EMPTY) start++;
+            for (int visited = 1; visited < slotKeys.length; visited++) {
+                int slot = (start + visited) & mask;
+                while (probeLengths[slot] != EMPTY && filter.test((K) slotKeys[slot], (V) slotValues[slot])) {
+                    removeAt(slot);
+                }
+            }
+            return before - size;
+        }
+        if (oldBuckets != null) {
+            for (int i = migrated; i < oldBuckets.length; i++) oldBuckets[i] = removeFromChain(oldBuckets[i], filter);
+        }
+        for (int i = 0; i < buckets.length; i++) buckets[i] = removeFromChain(buckets[i], filter);
+        updateLoadFactor();
+        return before - size;
+    }
+
+    /**
+     * Adds every key-value pair of another map, replacing the values of the keys already present.
+     * In Robin Hood mode, the table is grown once beforehand to hold both maps.
+     * @param other the map whose pairs are added.
+     */
+    public void putAll(HashMap<? extends K, ? extends V> other) {
+        if (probing == Probing.ROBIN_HOOD) {
+            while (size + other.size() > maximumLoad * slotKeys.length) growSlots();
+        }
+        other.forEach(this::put);
+    }
+
+    /**
+     * Looks up several keys at once. The keys are processed in batches: the position of every key
+     * of a batch is computed and its first slot or bucket is loaded before any key is compared, so
+     * the memory accesses of the batch overlap instead of waiting on each other.
+     * Missing keys give null.
+     * @param keys the keys to be searched.
+     * @param out receives the value of each key at the same index. Must be at least as long as
+     *            the keys.
+     * @return the number of keys found.
+     */
+    @SuppressWarnings({"unchecked"})
+    public int getAll(K[] keys, V[] out) {
+        if (out.length < keys.length) throw new IllegalArgumentException();
+        int found = 0;
+        int[] positions = new int[BATCH];
+        int[] hashes = new int[BATCH];
+        if (probing == Probing.ROBIN_HOOD) {
+            int mask = slotKeys.length - 1;
+            for (int start = 0; start < keys.length; start += BATCH) {
+                int end = Math.min(keys.length, start + BATCH);
+                for (int i = start; i < end; i++) {
+                    int hash = hash(keys[i]);
+                    int slot = homeSlot(hash);
+                    hashes[i - start] = hash;
+                    positions[i - start] = probeLengths[slot] == EMPTY ? NOT_FOUND : slot;
+                }
+                for (int i = start; i < end; i++) {
+                    int slot = positions[i - start];
+                    int hash = hashes[i - start];
+                    out[i] = null;
+                    for (int distance = 1; slot != NOT_FOUND && probeLengths[slot] >= distance; distance++) {
+                        if (slotHashes[slot] == hash && keysEqual(slotKeys[slot], keys[i])) {
+                            out[i] = (V) slotValues[slot];
+                            found++;
+                            break;
+                        }
+                        slot = (slot + 1) & mask;
+                    }
+                }
+            }
+            return found;
+        }
+        migrate();
+        Object[] heads = new Object[BATCH];
+        for (int start = 0; start < keys.length; start += BATCH) {
+            int end = Math.min(keys.length, start + BATCH);
+            for (int i = start; i < end; i++) {
+                int hash = hash(keys[i]);
+                Entry[] table = tableOf(hash);
+                hashes[i - start] = hash;
+                heads[i - start] = table[getIndex(hash, table)];
+            }
+            for (int i = start; i < end; i++) {
+                int hash = hashes[i - start];
+                out[i] = null;
+                for (Entry entry = (Entry) heads[i - start]; entry != null; entry = entry.next) {
+                    if (entry.hash == hash && keysEqual(entry.key, keys[i])) {
+                        out[i] = entry.value;
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns a spliterator over the key-value pairs, read straight from the table. It splits by
+     * halving its range of buckets or slots, so a parallel stream spreads the table over the
+     * common fork-join pool without copying it. The map must not be modified while it is used;
+     * while an incremental resize is in progress, lookups move buckets too, so the map should not
+     * be used at all.
+     * @return a spliterator over immutable key-value pairs.
+     */
+    public Spliterator<java.util.Map.Entry<K, V>> entrySpliterator() {
+        return new TableSpliterator<>(AbstractMap.SimpleImmutableEntry::new, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Returns a spliterator over the keys, read straight from the table.
+     * The map must not be modified while it is used.
+     * @return a spliterator over the keys.
+     * @see HashMap#entrySpliterator()
+     */
+    public Spliterator<K> keySpliterator() {
+        return new TableSpliterator<>((key, value) -> key, Spliterator.DISTINCT);
+    }
+
+    /**
+     * Returns a spliterator over the values, read straight from the table.
+     * The map must not be modified while it is used.
+     * @return a spliterator over the values.
+     * @see HashMap#entrySpliterator()
+     */
+    public Spliterator<V> valueSpliterator() {
+        return new TableSpliterator<>((key, value) -> value, 0);
+    }
+
+    /**
+     * Returns a sequential stream of the key-value pairs.
+     * @return a stream backed by {@link HashMap#entrySpliterator()}.
+     */
+    public Stream<java.util.Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(entrySpliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the key-value pairs.
+     * @return a parallel stream backed by {@link HashMap#entrySpliterator()}.
+     */
+    public Stream<java.util.Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(entrySpliterator(), true);
     }
 
     /**
@@ -223,20 +616,71 @@ public class HashMap<K, V> {
     }
 
     /**
-     * Updates the load factor by dividing the size by the length of each bucket.
+     * Updates the load factor by dividing the size by the number of buckets.
      */
     private void updateLoadFactor() {
-        loadFactor = size / (double) buckets.length();
+        loadFactor = size / (double) buckets.length;
     }
 
     /**
-     * Given a key, it returns the index of the element in the array list. It uses the hash
-     * function mod bucket length to find the bucket that the key pertains.
-     * @param key to be searched.
+     * Computes the mixed hash of a key, from which both tables derive its position.
+     * @param key to be hashed.
+     * @return the hash function result, mixed by {@link HashMap#mix(int)}.
+     */
+    private int hash(K key) {
+        return mix(hashFunction.hashCode(key));
+    }
+
+    /**
+     * The finalizer of MurmurHash3. Every bit of the input affects every bit of the output, so
+     * the low bits kept by the table masks depend on the whole hash code.
+     * @param hash a hash code.
+     * @return the mixed hash code.
+     */
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Given the hash of a key, it returns the index of its bucket in a table. Since the length
+     * of the tables is a power of two, the low bits of the hash are the index.
+     * @param hash the mixed hash of the key.
+     * @param table the table in which the key is placed.
      * @return a integer with the value.
      */
-    private int getIndex(K key) {
-        return hashFunction.hashCode(key) % buckets.length();
+    private int getIndex(int hash, Entry[] table) {
+        return hash & (table.length - 1);
+    }
+
+    /**
+     * Finds the entry of a key in the chained table.
+     * @param key to be searched.
+     * @return the entry of the key, or null if it is not in the map.
+     */
+    private Entry findEntry(K key) {
+        migrate();
+        int hash = hash(key);
+        Entry[] table = tableOf(hash);
+        for (Entry entry = table[getIndex(hash, table)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && keysEqual(entry.key, key)) return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the table that currently holds the bucket of a key. While a resize is in progress,
+     * a key whose old bucket has not been moved yet still lives in the old table, and new
+     * keys for that bucket are added there too, so that each key is only ever in one table.
+     * @param hash the mixed hash of the key.
+     * @return either {@link HashMap#oldBuckets} or {@link HashMap#buckets}.
+     */
+    private Entry[] tableOf(int hash) {
+        if (oldBuckets != null && getIndex(hash, oldBuckets) >= migrated) return oldBuckets;
+        return buckets;
     }
 
     /**
@@ -250,21 +694,401 @@ public class HashMap<K, V> {
     }
 
     /**
-     * Grows the hash map, updating all the key positions given the new size of the underlining
-     * array list.
+     * Grows the hash map, allocating a larger table. The entries of the old table are then
+     * moved either all at once or, with {@link Resizing#INCREMENTAL}, a few buckets per
+     * operation through {@link HashMap#migrate()}. If the previous resize has not finished yet,
+     * it is completed first.
      */
     private void grow() {
-        ArrayList<ArrayList<Entry>> oldKeys = buckets;
-        buckets.grow();
-        for (int i = 0; i < oldKeys.length(); i++) {
-            if (oldKeys.get(i) != null) {
-                ArrayList<Entry> entries = oldKeys.get(i);
-                for (int j = 0; j < entries.length(); j++) {
-                    put(entries.get(j).getKey(), entries.get(j).getValue());
+        if (oldBuckets != null) migrate(oldBuckets.length);
+        oldBuckets = buckets;
+        migrated = 0;
+        buckets = newTable(oldBuckets.length * GROWTH_FACTOR);
+        updateLoadFactor();
+        if (resizing == Resizing.ALL_AT_ONCE) migrate(oldBuckets.length);
+    }
+
+    /**
+     * Moves the next {@link HashMap#MIGRATION_STEP} buckets of the old table, if a resize is in
+     * progress.
+     */
+    private void migrate() {
+        if (oldBuckets != null) migrate(MIGRATION_STEP);
+    }
+
+    /**
+     * Moves a number of buckets from the old table to the new one. The entries are relinked
+     * rather than copied, so no allocation happens, and their cached hashes are reused. Once the
+     * last bucket is moved, the old table is released.
+     * @param count the maximum number of buckets to move.
+     */
+    private void migrate(int count) {
+        int end = Math.min(oldBuckets.length, migrated + count);
+        for (; migrated < end; migrated++) {
+            Entry entry = oldBuckets[migrated];
+            oldBuckets[migrated] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                int position = getIndex(entry.hash, buckets);
+                entry.next = buckets[position];
+                buckets[position] = entry;
+                entry = next;
+            }
+        }
+        if (migrated == oldBuckets.length) oldBuckets = null;
+    }
+
+    /**
+     * Unlinks from a chain every entry matching a predicate.
+     * @param head the first entry of the chain.
+     * @param filter returns true for the pairs to be removed.
+     * @return the new first entry of the chain.
+     */
+    private Entry removeFromChain(Entry head, BiPredicate<? super K, ? super V> filter) {
+        while (head != null && filter.test(head.key, head.value)) {
+            head = head.next;
+            --size;
+        }
+        for (Entry entry = head; entry != null && entry.next != null; ) {
+            if (filter.test(entry.next.key, entry.next.value)) {
+                entry.next = entry.next.next;
+                --size;
+            } else {
+                entry = entry.next;
+            }
+        }
+        return head;
+    }
+
+    /**
+     * Compares two keys through {@link HashCode#keyEquals(Object, Object)}, so that the hash
+     * function also decides which keys are equal.
+     * @param a a key of the map.
+     * @param b another key.
+     * @return true if the keys are equal.
+     */
+    @SuppressWarnings({"unchecked"})
+    private boolean keysEqual(Object a, Object b) {
+        return hashFunction.keyEquals((K) a, (K) b);
+    }
+
+    /**
+     * Creates an empty chained table.
+     * @param length number of buckets.
+     * @return an array of empty buckets.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private Entry[] newTable(int length) {
+        return (Entry[]) new HashMap.Entry[length];
+    }
+
+    /**
+     * Maps the hash of a key to its home slot in the open-addressing table.
+     * @param hash the mixed hash of the key.
+     * @return the home slot of the key.
+     */
+    private int homeSlot(int hash) {
+        return hash & (slotKeys.length - 1);
+    }
+
+    /**
+     * Finds the slot holding the key. The probe stops early as soon as it reaches a slot whose
+     * occupant is closer to its home than the key would be, since Robin Hood insertion would
+     * have placed the key before it.
+     * @param key to be searched.
+     * @param hash the mixed hash of the key.
+     * @return the slot of the key, or {@link HashMap#NOT_FOUND}.
+     */
+    private int findSlot(K key, int hash) {
+        int mask = slotKeys.length - 1;
+        int slot = homeSlot(hash);
+        for (int distance = 1; probeLengths[slot] >= distance; distance++) {
+            if (slotHashes[slot] == hash && keysEqual(slotKeys[slot], key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Adds or updates a key-value pair in the open-addressing table. While probing, an entry
+     * that is closer to its home than the one being placed gives up its slot and carries on
+     * probing in its place. The first displacement also proves that the key is absent, so no
+     * equality checks are needed after it.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @param hash the mixed hash of the key.
+     */
+    private void putSlot(K key, V value, int hash) {
+        if (size + 1 > maximumLoad * slotKeys.length) growSlots();
+        int mask = slotKeys.length - 1;
+        int slot = homeSlot(hash);
+        Object currentKey = key;
+        Object currentValue = value;
+        int currentHash = hash;
+        int distance = 1;
+        boolean displaced = false;
+        while (probeLengths[slot] != EMPTY) {
+            if (!displaced && slotHashes[slot] == currentHash && keysEqual(slotKeys[slot], currentKey)) {
+                slotValues[slot] = currentValue;
+                return;
+            }
+            if (probeLengths[slot] < distance) {
+                Object swapKey = slotKeys[slot];
+                Object swapValue = slotValues[slot];
+                int swapHash = slotHashes[slot];
+                int swapDistance = probeLengths[slot];
+                slotKeys[slot] = currentKey;
+                slotValues[slot] = currentValue;
+                slotHashes[slot] = currentHash;
+                probeLengths[slot] = distance;
+                currentKey = swapKey;
+                currentValue = swapValue;
+                currentHash = swapHash;
+                distance = swapDistance;
+                displaced = true;
+            }
+            slot = (slot + 1) & mask;
+            distance++;
+        }
+        slotKeys[slot] = currentKey;
+        slotValues[slot] = currentValue;
+        slotHashes[slot] = currentHash;
+        probeLengths[slot] = distance;
+        ++size;
+        loadFactor = size / (double) slotKeys.length;
+    }
+
+    /**
+     * Removes a key from the open-addressing table. Instead of leaving a tombstone, the entries
+     * following it are shifted one slot back until an empty slot or an entry already in its
+     * home slot is found.
+     * @param key of the object to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the table.
+     */
+    private void removeSlot(K key) {
+        int slot = findSlot(key, hash(key));
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        removeAt(slot);
+    }
+
+    /**
+     * Empties a slot of the open-addressing table through backward-shift deletion.
+     * @param slot the slot to be emptied.
+     */
+    private void removeAt(int slot) {
+        int mask = slotKeys.length - 1;
+        int next = (slot + 1) & mask;
+        while (probeLengths[next] > 1) {
+            slotKeys[slot] = slotKeys[next];
+            slotValues[slot] = slotValues[next];
+            slotHashes[slot] = slotHashes[next];
+            probeLengths[slot] = probeLengths[next] - 1;
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        slotKeys[slot] = null;
+        slotValues[slot] = null;
+        probeLengths[slot] = EMPTY;
+        --size;
+        loadFactor = size / (double) slotKeys.length;
+    }
+
+    /**
+     * Doubles the open-addressing table and places every entry again, using the cached hashes.
+     */
+    @SuppressWarnings({"unchecked"})
+    private void growSlots() {
+        Object[] oldKeys = slotKeys;
+        Object[] oldValues = slotValues;
+        int[] oldLengths = probeLengths;
+        int[] oldHashes = slotHashes;
+        slotKeys = new Object[oldKeys.length * 2];
+        slotValues = new Object[oldKeys.length * 2];
+        probeLengths = new int[oldKeys.length * 2];
+        slotHashes = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldLengths[i] != EMPTY) putSlot((K) oldKeys[i], (V) oldValues[i], oldHashes[i]);
+        }
+    }
+
+    /**
+     * The resizing strategies supported by the chained table.
+     */
+    public enum Resizing {
+        /**
+         * Every entry is moved to the new table as soon as the map grows.
+         */
+        ALL_AT_ONCE,
+        /**
+         * The entries are moved a few buckets at a time by the following operations.
+         */
+        INCREMENTAL
+    }
+
+    /**
+     * The collision resolution strategies supported by the hash map.
+     */
+    public enum Probing {
+        /**
+         * Each bucket holds a list with the entries that share it.
+         */
+        CHAINING,
+        /**
+         * Open addressing with Robin Hood linear probing and backward-shift deletion.
+         */
+        ROBIN_HOOD
+    }
+
+    /**
+     * Spliterator over a range of positions of the table. In Robin Hood mode, the positions are
+     * the slots. In chaining mode, they are the buckets of the old table followed by those of the
+     * current table, so that a resize in progress is covered as well; the old buckets already
+     * migrated are empty. The tables are captured at creation, and every split shares them.
+     * <p>
+     * The size is exact until the first split. After it, each half only estimates its size as half
+     * of the range it came from and stops reporting {@link Spliterator#SIZED}, since knowing the
+     * exact size of a range would mean visiting it.
+     * @param <T> the type of the elements produced from each pair.
+     */
+    final class TableSpliterator<T> implements Spliterator<T> {
+        private final BiFunction<? super K, ? super V, ? extends T> mapper;
+        private final int characteristics;
+        private final Object[] keys;
+        private final Object[] values;
+        private final int[] lengths;
+        private final Entry[] old;
+        private final int oldStart;
+        private final Entry[] table;
+        /**
+         * Next position to be visited.
+         */
+        private int index;
+        /**
+         * One past the last position of the range.
+         */
+        private final int fence;
+        /**
+         * Remaining entries of the chain being visited.
+         */
+        private Entry chain;
+        private long estimate;
+        private boolean exact;
+
+        /**
+         * Creates a spliterator over the whole table.
+         * @param mapper builds an element from a pair.
+         * @param characteristics the characteristics of the elements.
+         */
+        TableSpliterator(BiFunction<? super K, ? super V, ? extends T> mapper, int characteristics) {
+            this.mapper = mapper;
+            this.characteristics = characteristics;
+            this.keys = slotKeys;
+            this.values = slotValues;
+            this.lengths = probeLengths;
+            this.old = oldBuckets;
+            this.oldStart = migrated;
+            this.table = buckets;
+            this.index = 0;
+            this.fence = keys != null ? keys.length : table.length + (old != null ? old.length : 0);
+            this.estimate = size;
+            this.exact = true;
+        }
+
+        /**
+         * Creates the spliterator of the lower half of another one.
+         */
+        private TableSpliterator(TableSpliterator<T> parent, int fence) {
+            this.mapper = parent.mapper;
+            this.characteristics = parent.characteristics;
+            this.keys = parent.keys;
+            this.values = parent.values;
+            this.lengths = parent.lengths;
+            this.old = parent.old;
+            this.oldStart = parent.oldStart;
+            this.table = parent.table;
+            this.index = parent.index;
+            this.fence = fence;
+            this.estimate = parent.estimate;
+            this.exact = false;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (true) {
+                if (chain != null) {
+                    Entry entry = chain;
+                    chain = entry.next;
+                    action.accept(mapper.apply(entry.key, entry.value));
+                    return true;
+                }
+                if (index >= fence) return false;
+                if (keys != null) {
+                    int slot = index++;
+                    if (lengths[slot] != EMPTY) {
+                        action.accept(mapper.apply((K) keys[slot], (V) values[slot]));
+                        return true;
+                    }
+                } else {
+                    chain = bucket(index++);
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (Entry entry = chain; entry != null; entry = entry.next) action.accept(mapper.apply(entry.key, entry.value));
+            chain = null;
+            int end = fence;
+            if (keys != null) {
+                for (int slot = index; slot < end; slot++) {
+                    if (lengths[slot] != EMPTY) action.accept(mapper.apply((K) keys[slot], (V) values[slot]));
+                }
+            } else {
+                for (int position = index; position < end; position++) {
+                    for (Entry entry = bucket(position); entry != null; entry = entry.next) {
+                        action.accept(mapper.apply(entry.key, entry.value));
+                    }
                 }
             }
+            index = end;
+        }
+
+        /**
+         * Hands the lower half of the remaining positions to a new spliterator and keeps the upper
+         * half.
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (middle <= index) return null;
+            estimate >>>= 1;
+            exact = false;
+            TableSpliterator<T> lower = new TableSpliterator<>(this, middle);
+            index = middle;
+            return lower;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
         }
 
+        @Override
+        public int characteristics() {
+            return characteristics | (exact ? Spliterator.SIZED : 0);
+        }
+
+        /**
+         * Returns the chain at a position of the chained tables.
+         */
+        private Entry bucket(int position) {
+            if (old == null) return table[position];
+            if (position < old.length) return position >= oldStart ? old[position] : null;
+            return table[position - old.length];
+        }
     }
 
     /**
@@ -274,15 +1098,25 @@ public class HashMap<K, V> {
     class Entry {
         K key;
         V value;
+        /**
+         * The mixed hash of the key, computed once.
+         */
+        final int hash;
+        /**
+         * The next entry in the same bucket.
+         */
+        Entry next;
 
         /**
          * The constructor provides an assignment to both the key and value.
          * @param key  used to place the element within the array list.
          * @param value given and attached to the key through this object.
+         * @param hash the mixed hash of the key.
          */
-        Entry(K key, V value) {
+        Entry(K key, V value, int hash) {
             this.key = key;
             this.value = value;
+            this.hash = hash;
         }
 
         /**
@@ -0,0 +1,175 @@
+package com.ccampana.datastructures;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * IndexedDaryHeap is a {@link DaryHeap} that also finds its elements: adding an element returns
+ * a {@link Handle}, which always knows the index of the element in the heap. With it, an element
+ * can be made smaller by {@link IndexedDaryHeap#decreaseKey(Handle handle, E e)} or removed by
+ * {@link IndexedDaryHeap#remove(Handle handle)} in O(d log n), without searching for it, as a
+ * scheduler does when a timer is brought forward or cancelled.
+ * </p>
+ * <p>
+ * The array of the heap holds the handles, and every time a handle is written into it the heap
+ * updates its index. A handle removed from the heap, by dequeue or remove, is detached and its
+ * index becomes -1.
+ * </p>
+ * <ul>
+ * Supported operations, besides those of {@link DaryHeap}:
+ * <li>{@link IndexedDaryHeap#add(E e)} - adds an element and returns its handle.</li>
+ * <li>{@link IndexedDaryHeap#decreaseKey(Handle handle, E e)} - replaces an element by a smaller
+ * one.</li>
+ * <li>{@link IndexedDaryHeap#remove(Handle handle)} - removes an element.</li>
+ * <li>{@link IndexedDaryHeap#contains(Handle handle)} - checks whether a handle is in the heap.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @param <E> The type of the element to be added to the heap.
+ * @see DaryHeap
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class IndexedDaryHeap<E> extends DaryHeap<E> {
+    /**
+     * Constructor for a 4-ary heap.
+     * @param comparator orders the elements; the smallest is dequeued first.
+     */
+    public IndexedDaryHeap(Comparator<? super E> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Constructor that chooses the number of children of each node.
+     * @param arity the number of children of each node, at least 2.
+     * @param comparator orders the elements; the smallest is dequeued first.
+     * @throws IllegalArgumentException if the arity is less than 2.
+     */
+    public IndexedDaryHeap(int arity, Comparator<? super E> comparator) {
+        super(arity, comparator);
+    }
+
+    /**
+     * Adds an element and returns its handle.
+     * @param e the element to be added.
+     * @return the handle of the element.
+     */
+    @SuppressWarnings({"unchecked"})
+    public Handle<E> add(E e) {
+        Handle<E> handle = (Handle<E>) entry(e);
+        insert(handle);
+        return handle;
+    }
+
+    /**
+     * Replaces the element of a handle by one not greater than it, and moves it up to its new
+     * position.
+     * @param handle the handle of the element.
+     * @param e the new element.
+     * @throws NoSuchElementException if the handle is not in this heap.
+     * @throws IllegalArgumentException if the new element is greater than the current one.
+     */
+    public void decreaseKey(Handle<E> handle, E e) throws NoSuchElementException {
+        if (!contains(handle)) throw new NoSuchElementException();
+        if (comparator.compare(e, handle.element) > 0) throw new IllegalArgumentException();
+        handle.element = e;
+        siftUp(handle.index, handle);
+    }
+
+    /**
+     * Removes the element of a handle, wherever it is in the heap.
+     * @param handle the handle of the element.
+     * @return the element removed.
+     * @throws NoSuchElementException if the handle is not in this heap.
+     */
+    public E remove(Handle<E> handle) throws NoSuchElementException {
+        if (!contains(handle)) throw new NoSuchElementException();
+        return element(removeAt(handle.index));
+    }
+
+    /**
+     * Checks whether a handle is in this heap.
+     * @param handle the handle.
+     * @return true if the element of the handle is in this heap.
+     */
+    public boolean contains(Handle<E> handle) {
+        int index = handle.index;
+        return index >= 0 && index < size && heap[index] == handle;
+    }
+
+    /**
+     * Detaches every handle and removes every element.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) ((Handle<?>) heap[i]).index = Handle.DETACHED;
+        super.clear();
+    }
+
+    @Override
+    Object removeAt(int index) {
+        Handle<?> removed = (Handle<?>) super.removeAt(index);
+        removed.index = Handle.DETACHED;
+        return removed;
+    }
+
+    @Override
+    void place(Object entry, int index) {
+        heap[index] = entry;
+        ((Handle<?>) entry).index = index;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked"})
+    int compare(Object a, Object b) {
+        return comparator.compare(((Handle<E>) a).element, ((Handle<E>) b).element);
+    }
+
+    @Override
+    Object entry(E e) {
+        return new Handle<>(e);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked"})
+    E element(Object entry) {
+        return ((Handle<E>) entry).element;
+    }
+
+    /**
+     * The position of an element in an {@link IndexedDaryHeap}.
+     * @param <E> The type of the element.
+     */
+    public static final class Handle<E> {
+        /**
+         * Index of a handle that is not in a heap.
+         */
+        final static int DETACHED = -1;
+
+        /**
+         * The element.
+         */
+        E element;
+        /**
+         * The index of the handle in the array of the heap, or {@link Handle#DETACHED}.
+         */
+        int index = DETACHED;
+
+        Handle(E element) {
+            this.element = element;
+        }
+
+        /**
+         * Returns the element of the handle.
+         * @return the element.
+         */
+        public E element() {
+            return element;
+        }
+    }
+}
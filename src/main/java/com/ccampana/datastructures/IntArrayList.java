@@ -0,0 +1,294 @@
+package com.ccampana.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * IntArrayList is an {@link ArrayList} specialized for int values. The values are kept in an
+ * int[], so no element is boxed: each one takes 4 bytes instead of a reference plus an Integer
+ * object, and adding a value allocates nothing unless the array has to grow.
+ * </p>
+ * <p>
+ * It mirrors the operations of the interface {@link List}, adds bulk additions and reductions,
+ * and gives direct access to its underlining array, for loops that cannot afford a method call
+ * per element.
+ * </p>
+ * <p>
+ * When the JVM runs with the module jdk.incubator.vector, searches and reductions go through
+ * {@link VectorKernels}, which compare or add a whole vector register of values per step;
+ * otherwise they fall back to scalar loops. See {@link Simd}.
+ * </p>
+ * <p>
+ * Its initial capacity is 10 as well as its growth rate is 1.5.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link IntArrayList#add(int element)} - adds a value at the end of the list.</li>
+ * <li>{@link IntArrayList#addAll(int[] elements)} - adds every value of an array, growing the
+ * list once.</li>
+ * <li>{@link IntArrayList#get(int index)} - returns the value at an index.</li>
+ * <li>{@link IntArrayList#set(int index, int element)} - replaces the value at an index.</li>
+ * <li>{@link IntArrayList#remove(int element)} - removes the first occurrence of a value.</li>
+ * <li>{@link IntArrayList#removeAt(int index)} - removes the value at an index.</li>
+ * <li>{@link IntArrayList#indexOf(int element)} - returns the index of a value.</li>
+ * <li>{@link IntArrayList#contains(int element)} - checks whether a value is in the list.</li>
+ * <li>{@link IntArrayList#count(int element)} - counts the occurrences of a value.</li>
+ * <li>{@link IntArrayList#sum()}, {@link IntArrayList#min()}, {@link IntArrayList#max()} -
+ * reductions over the values.</li>
+ * <li>{@link IntArrayList#toArray()} - copies the values into an array.</li>
+ * <li>{@link IntArrayList#array()} - returns the underlining array.</li>
+ * <li>{@link IntArrayList#size()} - Returns the number of values.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see ArrayList
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class IntArrayList {
+    /**
+     * Initial Capacity of the array. Default value is 10.
+     */
+    final static int INITIAL_CAPACITY = 10;
+    /**
+     * Growth rate of the array, as it grows. Default value is 1.5
+     */
+    final static double GROWTH_FACTOR = 1.5;
+    /**
+     * Used in the method indexOf to denote a value that is not present in the list.
+     */
+    final static int NOT_FOUND = -1;
+
+    /**
+     * The underlining array. Only its first {@link IntArrayList#size} values belong to the list.
+     */
+    int[] array;
+    /**
+     * Keeps the current number of values in the array.
+     */
+    int size;
+
+    /**
+     * The default constructor, it only calls the method {@link IntArrayList#clear()}.
+     */
+    public IntArrayList() {
+        clear();
+    }
+
+    /**
+     * Constructor that copies an array of values into the list.
+     * @param elements the values to be added.
+     */
+    public IntArrayList(int[] elements) {
+        array = Arrays.copyOf(elements, Math.max(INITIAL_CAPACITY, elements.length));
+        size = elements.length;
+    }
+
+    /**
+     * Adds a value at the end of the list, growing the array if it is full.
+     * @param element value to be added.
+     */
+    public void add(int element) {
+        if (size == array.length) grow(size + 1);
+        array[size++] = element;
+    }
+
+    /**
+     * Adds every value of an array at the end of the list, with a single copy.
+     * @param elements values to be added.
+     */
+    public void addAll(int[] elements) {
+        if (size + elements.length > array.length) grow(size + elements.length);
+        System.arraycopy(elements, 0, array, size, elements.length);
+        size += elements.length;
+    }
+
+    /**
+     * Returns the value at an index.
+     * @param index index of the value.
+     * @return the value at the index.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public int get(int index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        return array[index];
+    }
+
+    /**
+     * Replaces the value at an index.
+     * @param index index of the value.
+     * @param element the new value.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public void set(int index, int element) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        array[index] = element;
+    }
+
+    /**
+     * Removes the first occurrence of a value, shifting the following values back.
+     * @param element value to be removed.
+     * @throws NoSuchElementException if the value is not in the list.
+     */
+    public void remove(int element) throws NoSuchElementException {
+        int index = indexOf(element);
+        if (index == NOT_FOUND) throw new NoSuchElementException();
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        --size;
+    }
+
+    /**
+     * Removes the value at an index, shifting the following values back.
+     * @param index index of the value.
+     * @return the value removed.
+     * @throws NoSuchElementException if the index is not within the list.
+     */
+    public int removeAt(int index) throws NoSuchElementException {
+        int element = get(index);
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        --size;
+        return element;
+    }
+
+    /**
+     * Removes every value, keeping a new array of the initial capacity.
+     */
+    public void clear() {
+        array = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Finds the index of the first occurrence of a value.
+     * @param element value to be searched.
+     * @return the index of the value, or {@link IntArrayList#NOT_FOUND}.
+     */
+    public int indexOf(int element) {
+        if (Simd.ENABLED) return VectorKernels.indexOf(array, size, element);
+        for (int i = 0; i < size; i++) {
+            if (array[i] == element) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Checks whether a value is in the list.
+     * @param element value to be searched.
+     * @return true if the value is in the list.
+     */
+    public boolean contains(int element) {
+        return indexOf(element) != NOT_FOUND;
+    }
+
+    /**
+     * Counts the occurrences of a value.
+     * @param element value to be counted.
+     * @return the number of occurrences.
+     */
+    public int count(int element) {
+        if (Simd.ENABLED) return VectorKernels.count(array, size, element);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (array[i] == element) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds all the values. The result is a long, so it does not overflow before 2^32 values.
+     * @return the sum of the values, 0 if the list is empty.
+     */
+    public long sum() {
+        if (Simd.ENABLED) return VectorKernels.sum(array, size);
+        long sum = 0;
+        for (int i = 0; i < size; i++) sum += array[i];
+        return sum;
+    }
+
+    /**
+     * Returns the smallest value.
+     * @return the smallest value.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public int min() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        if (Simd.ENABLED) return VectorKernels.min(array, size);
+        int min = array[0];
+        for (int i = 1; i < size; i++) min = Math.min(min, array[i]);
+        return min;
+    }
+
+    /**
+     * Returns the largest value.
+     * @return the largest value.
+     * @throws NoSuchElementException if the list is empty.
+     */
+    public int max() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        if (Simd.ENABLED) return VectorKernels.max(array, size);
+        int max = array[0];
+        for (int i = 1; i < size; i++) max = Math.max(max, array[i]);
+        return max;
+    }
+
+    /**
+     * Copies the values into a new array of exactly the size of the list.
+     * @return an array with the values.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Returns the underlining array, without copying it. Only its first {@link IntArrayList#size()}
+     * values belong to the list, and it is replaced whenever the list grows, so it must be fetched
+     * again after any addition.
+     * @return the underlining array.
+     */
+    public int[] array() {
+        return array;
+    }
+
+    /**
+     * Returns the number of values.
+     * @return the size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * If size is 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a string with all the values of the list.
+     * @return a string with all the values of the list.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) sb.append(array[i]).append(" ");
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Grows the array by the growth factor, or more if needed.
+     * @param minimumCapacity the capacity the array must reach.
+     */
+    private void grow(int minimumCapacity) {
+        int capacity = Math.max(minimumCapacity, (int) (array.length * GROWTH_FACTOR));
+        array = Arrays.copyOf(array, Math.max(capacity, INITIAL_CAPACITY));
+    }
+}
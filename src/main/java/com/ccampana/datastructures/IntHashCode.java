@@ -0,0 +1,5 @@
+package com.ccampana.datastructures;
+
+public interface IntHashCode {
+    int hashCode(int key);
+}
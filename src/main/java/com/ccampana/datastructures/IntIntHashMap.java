@@ -0,0 +1,329 @@
+package com.ccampana.datastructures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * IntIntHashMap is a hash map specialized for int keys and int values. It offers the same
+ * operations as {@link HashMap}, but neither keys nor values are ever boxed: they are kept in two
+ * flat parallel int arrays, and the hash function is given through the interface
+ * {@link IntHashCode}, which takes the key as a primitive.
+ * </p>
+ * <p>
+ * Collisions are resolved through linear probing over a table whose length is a power of two.
+ * The key 0 marks an empty slot, so a key equal to 0 is stored apart from the table. Removals shift
+ * the following entries back instead of leaving tombstones.
+ * </p>
+ * <p>
+ * The maximum load within the hash map is 0.75 unless defined differently through the constructor.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link IntIntHashMap#put(int key, int value)} - adds a key-value pair to the hash map.</li>
+ * <li>{@link IntIntHashMap#addTo(int key, int delta)} - adds a delta to the value of a key.</li>
+ * <li>{@link IntIntHashMap#remove(int key)} - removes a key-value pair from the hash map.</li>
+ * <li>{@link IntIntHashMap#get(int key)} - returns the value associated with a key.</li>
+ * <li>{@link IntIntHashMap#getOrDefault(int key, int defaultValue)} - returns the value associated
+ * with a key, or a default value.</li>
+ * <li>{@link IntIntHashMap#containsKey(int key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link IntIntHashMap#keys()} - returns an array of all keys within the hash map.</li>
+ * <li>{@link IntIntHashMap#values()} - returns an array of all values within the hash map.</li>
+ * <li>{@link IntIntHashMap#size()} - Returns the size of the hash map.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see IntHashCode
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class IntIntHashMap {
+    /**
+     * The default maximum load of 0.75.
+     */
+    final static double DEFAULT_MAX_LOAD = 0.75;
+    /**
+     * Initial number of slots of the table. Must be a power of two.
+     */
+    final static int INITIAL_SLOTS = 16;
+    /**
+     * The key that marks an empty slot.
+     */
+    final static int FREE = 0;
+    /**
+     * Returned by {@link IntIntHashMap#findSlot(int key)} when the key is not in the table.
+     */
+    final static int NOT_FOUND = -1;
+    /**
+     * The hash function interface, required by the constructors.
+     */
+    IntHashCode hashFunction;
+    /**
+     * Keys of the table, {@link IntIntHashMap#FREE} in empty slots.
+     */
+    int[] keys;
+    /**
+     * Values of the table, parallel to {@link IntIntHashMap#keys}.
+     */
+    int[] values;
+    /**
+     * Whether the key 0 is in the map.
+     */
+    boolean hasFreeKey;
+    /**
+     * The value associated with the key 0.
+     */
+    int freeValue;
+    /**
+     * Private field that defines the maximum load of the hash map.
+     */
+    private final double maximumLoad;
+    /**
+     * The size of the hashmap.
+     */
+    private int size;
+
+    /**
+     * This constructor initializes the hashCode and all the variables.
+     * @param hashCode a class that implements the interface IntHashCode.
+     */
+    public IntIntHashMap(IntHashCode hashCode) {
+        this(hashCode, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * This constructor allows for a custom maximum load.
+     * @param hashCode a class that implements the interface IntHashCode.
+     * @param maximumLoad the maximum load, between 0 and 1 exclusive.
+     * @throws IllegalArgumentException if the maximum load is out of range.
+     */
+    public IntIntHashMap(IntHashCode hashCode, double maximumLoad) {
+        if (maximumLoad <= 0 || maximumLoad >= 1) throw new IllegalArgumentException();
+        this.hashFunction = hashCode;
+        this.maximumLoad = maximumLoad;
+        keys = new int[INITIAL_SLOTS];
+        values = new int[INITIAL_SLOTS];
+        size = 0;
+    }
+
+    /**
+     * Adds a key-value pair to the hash map, replacing the previous value of the key.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     */
+    public void put(int key, int value) {
+        if (key == FREE) {
+            if (!hasFreeKey) ++size;
+            hasFreeKey = true;
+            freeValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot != NOT_FOUND) {
+            values[slot] = value;
+            return;
+        }
+        insert(key, value);
+    }
+
+    /**
+     * Adds a delta to the value associated with a key. If the key is not in the map, it is
+     * added with the delta as its value. Useful for counters.
+     * @param key the key used for indexing.
+     * @param delta the amount to be added.
+     * @return the new value associated with the key.
+     */
+    public int addTo(int key, int delta) {
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                ++size;
+                hasFreeKey = true;
+                freeValue = 0;
+            }
+            return freeValue += delta;
+        }
+        int slot = findSlot(key);
+        if (slot != NOT_FOUND) return values[slot] += delta;
+        insert(key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes a key-value pair based on a given key.
+     * @param key of the pair to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
+     */
+    public void remove(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) throw new NoSuchElementException();
+            hasFreeKey = false;
+            --size;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        shiftBack(slot);
+        --size;
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it. In case it does not exist,
+     * it throws a NoSuchElement exception.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     */
+    public int get(int key) {
+        if (key == FREE) {
+            if (!hasFreeKey) throw new NoSuchElementException();
+            return freeValue;
+        }
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        return values[slot];
+    }
+
+    /**
+     * Returns the value associated with a key, or a default value if the key is not in the map.
+     * @param key to be searched.
+     * @param defaultValue returned when the key is not in the map.
+     * @return the value associated with the key, or the default value.
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        if (key == FREE) return hasFreeKey ? freeValue : defaultValue;
+        int slot = findSlot(key);
+        return slot == NOT_FOUND ? defaultValue : values[slot];
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(int key) {
+        if (key == FREE) return hasFreeKey;
+        return findSlot(key) != NOT_FOUND;
+    }
+
+    /**
+     * Returns all the hash map keys in an array.
+     * @return an array containing all the keys.
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int j = 0;
+        if (hasFreeKey) result[j++] = FREE;
+        for (int key : keys) {
+            if (key != FREE) result[j++] = key;
+        }
+        return result;
+    }
+
+    /**
+     * Returns all the hash map values in an array, in the same order as {@link IntIntHashMap#keys()}.
+     * @return an array containing all the values.
+     */
+    public int[] values() {
+        int[] result = new int[size];
+        int j = 0;
+        if (hasFreeKey) result[j++] = freeValue;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) result[j++] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * The size of the hash map.
+     * @return the value of the private variable size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps a key to its home slot. The hash is spread so that the high bits also take part in
+     * the choice of the slot, since only the low bits are kept by the mask.
+     * @param key to be placed.
+     * @return the home slot of the key.
+     */
+    private int homeSlot(int key) {
+        int hash = hashFunction.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * Finds the slot holding a key other than 0.
+     * @param key to be searched.
+     * @return the slot of the key, or {@link IntIntHashMap#NOT_FOUND}.
+     */
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        for (int slot = homeSlot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Places a key known to be absent, growing the table first if needed.
+     * @param key the key used for indexing, other than 0.
+     * @param value value to be associated with the key.
+     */
+    private void insert(int key, int value) {
+        if (size + 1 > maximumLoad * keys.length) grow();
+        int slot = emptySlot(key);
+        keys[slot] = key;
+        values[slot] = value;
+        ++size;
+    }
+
+    /**
+     * Finds the first empty slot of the probe sequence of a key.
+     * @param key to be placed.
+     * @return an empty slot.
+     */
+    private int emptySlot(int key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        while (keys[slot] != FREE) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving back every following entry of the cluster that would no longer
+     * be reachable from its home slot.
+     * @param gap the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        for (int slot = (gap + 1) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            int home = homeSlot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+    }
+
+    /**
+     * Doubles the table and places every entry again.
+     */
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = emptySlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.ccampana.datastructures;
 
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface List<E> {
     void add(E e);
@@ -20,4 +24,29 @@ public interface List<E> {
     boolean isEmpty();
 
     String toString();
+
+    /**
+     * Returns a spliterator over the elements, in order. By default it works on a copy made by
+     * {@link List#toArray()}; implementations override it to read their own storage.
+     * @return a spliterator over the elements.
+     */
+    default Spliterator<E> spliterator() {
+        return Spliterators.spliterator(toArray(), Spliterator.ORDERED);
+    }
+
+    /**
+     * Returns a sequential stream of the elements.
+     * @return a stream backed by {@link List#spliterator()}.
+     */
+    default Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements.
+     * @return a parallel stream backed by {@link List#spliterator()}.
+     */
+    default Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
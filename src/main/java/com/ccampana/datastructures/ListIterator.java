@@ -1,6 +1,7 @@
 package com.ccampana.datastructures;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * This class provides an implementation for the Iterator.
@@ -25,21 +26,25 @@ public class ListIterator<E> implements Iterator<E> {
 
     /**
      * If it has a next element in the list, it will return true. False, otherwise.
+     * The holes left by removals are skipped. The array of the list is read directly, without
+     * the bounds checks of {@link ArrayList#get(int)}.
      * @return a boolean indicating if there is another element after the current.
      */
     @Override
     public boolean hasNext() {
-        return index < list.length() - 1;
+        while (index < list.length() && list.array[index] == null) index++;
+        return index < list.length();
     }
 
     /**
      * Provides the next element.
      * @return the next element of type E.
+     * @throws NoSuchElementException if there is no element left.
      */
     @Override
     public E next() {
-        index++;
-        current = list.get(index);
+        if (!hasNext()) throw new NoSuchElementException();
+        current = list.array[index++];
         return current;
     }
 }
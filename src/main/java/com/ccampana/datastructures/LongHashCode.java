@@ -0,0 +1,5 @@
+package com.ccampana.datastructures;
+
+public interface LongHashCode {
+    int hashCode(long key);
+}
@@ -0,0 +1,288 @@
+package com.ccampana.datastructures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * LongObjectHashMap is a hash map specialized for long keys. It offers the same operations as
+ * {@link HashMap}, but the keys are never boxed: they are kept in a flat long array parallel to the
+ * array of values, and the hash function is given through the interface {@link LongHashCode},
+ * which takes the key as a primitive.
+ * </p>
+ * <p>
+ * Collisions are resolved through linear probing over a table whose length is a power of two.
+ * The key 0 marks an empty slot, so a key equal to 0 is stored apart from the table. Removals shift
+ * the following entries back instead of leaving tombstones.
+ * </p>
+ * <p>
+ * The maximum load within the hash map is 0.75 unless defined differently through the constructor.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link LongObjectHashMap#put(long key, V value)} - adds a key-value pair to the hash map.</li>
+ * <li>{@link LongObjectHashMap#remove(long key)} - removes a key-value pair from the hash map.</li>
+ * <li>{@link LongObjectHashMap#get(long key)} - returns the value associated with a key.</li>
+ * <li>{@link LongObjectHashMap#containsKey(long key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link LongObjectHashMap#keys()} - returns an array of all keys within the hash map.</li>
+ * <li>{@link LongObjectHashMap#values()} - returns a list of all values within the hash map.</li>
+ * <li>{@link LongObjectHashMap#size()} - Returns the size of the hash map.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see LongHashCode
+ * @param <V> The value type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class LongObjectHashMap<V> {
+    /**
+     * The default maximum load of 0.75.
+     */
+    final static double DEFAULT_MAX_LOAD = 0.75;
+    /**
+     * Initial number of slots of the table. Must be a power of two.
+     */
+    final static int INITIAL_SLOTS = 16;
+    /**
+     * The key that marks an empty slot.
+     */
+    final static long FREE = 0;
+    /**
+     * Returned by {@link LongObjectHashMap#findSlot(long key)} when the key is not in the table.
+     */
+    final static int NOT_FOUND = -1;
+    /**
+     * The hash function interface, required by the constructors.
+     */
+    LongHashCode hashFunction;
+    /**
+     * Keys of the table, {@link LongObjectHashMap#FREE} in empty slots.
+     */
+    long[] keys;
+    /**
+     * Values of the table, parallel to {@link LongObjectHashMap#keys}.
+     */
+    Object[] values;
+    /**
+     * Whether the key 0 is in the map.
+     */
+    boolean hasFreeKey;
+    /**
+     * The value associated with the key 0.
+     */
+    V freeValue;
+    /**
+     * Private field that defines the maximum load of the hash map.
+     */
+    private final double maximumLoad;
+    /**
+     * The size of the hashmap.
+     */
+    private int size;
+
+    /**
+     * This constructor initializes the hashCode and all the variables.
+     * @param hashCode a class that implements the interface LongHashCode.
+     */
+    public LongObjectHashMap(LongHashCode hashCode) {
+        this(hashCode, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * This constructor allows for a custom maximum load.
+     * @param hashCode a class that implements the interface LongHashCode.
+     * @param maximumLoad the maximum load, between 0 and 1 exclusive.
+     * @throws IllegalArgumentException if the maximum load is out of range.
+     */
+    public LongObjectHashMap(LongHashCode hashCode, double maximumLoad) {
+        if (maximumLoad <= 0 || maximumLoad >= 1) throw new IllegalArgumentException();
+        this.hashFunction = hashCode;
+        this.maximumLoad = maximumLoad;
+        keys = new long[INITIAL_SLOTS];
+        values = new Object[INITIAL_SLOTS];
+        size = 0;
+    }
+
+    /**
+     * Adds a key-value pair to the hash map, replacing the previous value of the key.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     */
+    public void put(long key, V value) {
+        if (key == FREE) {
+            if (!hasFreeKey) ++size;
+            hasFreeKey = true;
+            freeValue = value;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot != NOT_FOUND) {
+            values[slot] = value;
+            return;
+        }
+        if (size + 1 > maximumLoad * keys.length) grow();
+        slot = emptySlot(key);
+        keys[slot] = key;
+        values[slot] = value;
+        ++size;
+    }
+
+    /**
+     * Removes a key-value pair based on a given key.
+     * @param key of the pair to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
+     */
+    public void remove(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) throw new NoSuchElementException();
+            hasFreeKey = false;
+            freeValue = null;
+            --size;
+            return;
+        }
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        shiftBack(slot);
+        --size;
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it. In case it does not exist,
+     * it throws a NoSuchElement exception.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     */
+    @SuppressWarnings({"unchecked"})
+    public V get(long key) {
+        if (key == FREE) {
+            if (!hasFreeKey) throw new NoSuchElementException();
+            return freeValue;
+        }
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        return (V) values[slot];
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE) return hasFreeKey;
+        return findSlot(key) != NOT_FOUND;
+    }
+
+    /**
+     * Returns all the hash map keys in an array.
+     * @return an array containing all the keys.
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int j = 0;
+        if (hasFreeKey) result[j++] = FREE;
+        for (long key : keys) {
+            if (key != FREE) result[j++] = key;
+        }
+        return result;
+    }
+
+    /**
+     * Returns all the hash map values in a list, in the same order as
+     * {@link LongObjectHashMap#keys()}.
+     * @return a list containing all the values.
+     */
+    @SuppressWarnings({"unchecked"})
+    public List<V> values() {
+        List<V> result = new ArrayList<>();
+        if (hasFreeKey) result.add(freeValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) result.add((V) values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * The size of the hash map.
+     * @return the value of the private variable size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps a key to its home slot. The hash is spread so that the high bits also take part in
+     * the choice of the slot, since only the low bits are kept by the mask.
+     * @param key to be placed.
+     * @return the home slot of the key.
+     */
+    private int homeSlot(long key) {
+        int hash = hashFunction.hashCode(key);
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * Finds the slot holding a key other than 0.
+     * @param key to be searched.
+     * @return the slot of the key, or {@link LongObjectHashMap#NOT_FOUND}.
+     */
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        for (int slot = homeSlot(key); keys[slot] != FREE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Finds the first empty slot of the probe sequence of a key.
+     * @param key to be placed.
+     * @return an empty slot.
+     */
+    private int emptySlot(long key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        while (keys[slot] != FREE) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving back every following entry of the cluster that would no longer
+     * be reachable from its home slot.
+     * @param gap the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        for (int slot = (gap + 1) & mask; keys[slot] != FREE; slot = (slot + 1) & mask) {
+            int home = homeSlot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+    }
+
+    /**
+     * Doubles the table and places every entry again.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == FREE) continue;
+            int slot = emptySlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
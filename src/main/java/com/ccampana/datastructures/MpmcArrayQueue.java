@@ -0,0 +1,155 @@
+package com.ccampana.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * MpmcArrayQueue is a lock-free bounded queue for any number of producer and consumer threads. It
+ * is a {@link RingBufferQueue}: a ring buffer allocated once, with padded producer and consumer
+ * indices, so a hand-off allocates nothing.
+ * </p>
+ * <p>
+ * Besides its element, each slot has a sequence number, kept in a parallel long array, which
+ * tells whose turn it is. A slot whose sequence equals an index is free for the producer of that
+ * index; once the element is written, the producer sets it to the index plus one, which makes it
+ * ready for the consumer of that index; once the element is taken, the consumer sets it to the
+ * index plus the capacity, which frees it for the producer of the next lap. Producers and
+ * consumers claim their indices with a compare-and-set, and only after reading that the slot is
+ * theirs, so a claimed slot is always usable.
+ * </p>
+ * <p>
+ * A thread may still wait on another mid-operation: a producer whose slot was claimed by a
+ * consumer of the previous lap that has not yet freed it, or a consumer whose index was claimed by
+ * a producer that has not yet written its element, spins until the other thread is done, which is
+ * only a few instructions away unless that thread is descheduled. The queue is therefore not
+ * wait-free, but the wait never involves a lock.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link MpmcArrayQueue#offer(E e)} - adds an element if there is room.</li>
+ * <li>{@link RingBufferQueue#offerAll(E[] elements)} - adds the elements of an array while there
+ * is room, returning how many were added.</li>
+ * <li>{@link MpmcArrayQueue#poll()} - removes the first element, if there is one.</li>
+ * <li>{@link MpmcArrayQueue#peek()} - retrieves but does not remove the first element.</li>
+ * <li>{@link RingBufferQueue#enqueue(E e)}, {@link RingBufferQueue#dequeue()} - the operations of
+ * {@link Queue}, throwing when they cannot proceed.</li>
+ * <li>{@link RingBufferQueue#size()} - Returns the number of elements.</li>
+ * <li>{@link RingBufferQueue#capacity()} - Returns the capacity, a power of two.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @param <E> the generic type.
+ * @see RingBufferQueue
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class MpmcArrayQueue<E> extends RingBufferQueue<E> {
+    /**
+     * Acquire and release access to the sequence numbers.
+     */
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The sequence number of each slot.
+     */
+    final long[] sequences;
+
+    /**
+     * Constructor that allocates the ring buffer and its sequence numbers.
+     * @param capacity the minimum capacity, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30.
+     */
+    public MpmcArrayQueue(int capacity) {
+        super(capacity);
+        sequences = new long[buffer.length];
+        for (int i = 0; i < sequences.length; i++) sequences[i] = i;
+    }
+
+    /**
+     * Adds an element at the end of the queue if there is room. May be called by any thread. If
+     * its slot is still being freed by a consumer, it spins until it is.
+     * @param e the element to be enqueued.
+     * @return true if the element was added, false if the queue is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new IllegalArgumentException();
+        while (true) {
+            long index = (long) PRODUCER_INDEX.getVolatile(this);
+            int slot = (int) index & mask;
+            long sequence = (long) SEQUENCE.getAcquire(sequences, slot);
+            if (sequence == index) {
+                if (PRODUCER_INDEX.compareAndSet(this, index, index + 1)) {
+                    buffer[slot] = e;
+                    SEQUENCE.setRelease(sequences, slot, index + 1);
+                    return true;
+                }
+            } else if (sequence < index) {
+                // the slot still holds the element of the previous lap
+                if (index - buffer.length >= (long) CONSUMER_INDEX.getVolatile(this)) return false;
+                // a consumer claimed it and is about to free it
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, if there is one. May be called by any
+     * thread. If the first element is claimed but not yet written by its producer, it spins until
+     * it is.
+     * @return The element removed, or null if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E poll() {
+        while (true) {
+            long index = (long) CONSUMER_INDEX.getVolatile(this);
+            int slot = (int) index & mask;
+            long sequence = (long) SEQUENCE.getAcquire(sequences, slot);
+            if (sequence == index + 1) {
+                if (CONSUMER_INDEX.compareAndSet(this, index, index + 1)) {
+                    Object element = buffer[slot];
+                    buffer[slot] = null;
+                    SEQUENCE.setRelease(sequences, slot, index + buffer.length);
+                    return (E) element;
+                }
+            } else if (sequence < index + 1) {
+                // the element of this index is not written yet
+                if (index >= (long) PRODUCER_INDEX.getVolatile(this)) return null;
+                // a producer claimed the index and is about to publish it
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Retrieves but does not remove the first element of the queue. It reads the element only
+     * while the sequence of its slot says it is ready, so it never returns an element already
+     * taken, though it may be taken by the time it is returned.
+     * @return The first element.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E peek() throws NoSuchElementException {
+        while (true) {
+            long index = (long) CONSUMER_INDEX.getVolatile(this);
+            int slot = (int) index & mask;
+            long sequence = (long) SEQUENCE.getAcquire(sequences, slot);
+            if (sequence == index + 1) {
+                Object element = SLOT.getAcquire(buffer, slot);
+                if (element != null && (long) CONSUMER_INDEX.getVolatile(this) == index) return (E) element;
+            } else if (sequence < index + 1 && index >= (long) PRODUCER_INDEX.getVolatile(this)) {
+                throw new NoSuchElementException();
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
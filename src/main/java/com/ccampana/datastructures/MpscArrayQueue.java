@@ -0,0 +1,103 @@
+package com.ccampana.datastructures;
+
+/**
+ * <p>
+ * MpscArrayQueue is a lock-free bounded queue for any number of producer threads handing elements
+ * to a single consumer thread, such as the inbox of a worker. It is a {@link RingBufferQueue}: a
+ * ring buffer allocated once, with padded producer and consumer indices, so a hand-off allocates
+ * nothing.
+ * </p>
+ * <p>
+ * Producers claim an index with a compare-and-set of the producer index and then publish the
+ * element with a release write of its slot. To know whether there is room, a producer compares
+ * the index with the producer limit, a consumer index plus the capacity seen earlier, and reads
+ * the consumer index again only when it runs past that limit; so producers seldom touch the line
+ * the consumer writes. The single consumer advances with plain ordered writes. When it finds an
+ * empty slot behind a claimed index, the producer that claimed it is about to publish, and the
+ * consumer spins until it does.
+ * </p>
+ * <p>
+ * Calling poll from two threads at once corrupts the queue; use {@link MpmcArrayQueue} then.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link MpscArrayQueue#offer(E e)} - adds an element if there is room.</li>
+ * <li>{@link RingBufferQueue#offerAll(E[] elements)} - adds the elements of an array while there
+ * is room, returning how many were added.</li>
+ * <li>{@link MpscArrayQueue#poll()} - removes the first element, if there is one.</li>
+ * <li>{@link RingBufferQueue#enqueue(E e)}, {@link RingBufferQueue#dequeue()},
+ * {@link RingBufferQueue#peek()} - the operations of {@link Queue}, throwing when they cannot
+ * proceed.</li>
+ * <li>{@link RingBufferQueue#size()} - Returns the number of elements.</li>
+ * <li>{@link RingBufferQueue#capacity()} - Returns the capacity, a power of two.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @param <E> the generic type.
+ * @see RingBufferQueue
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class MpscArrayQueue<E> extends RingBufferQueue<E> {
+    /**
+     * Constructor that allocates the ring buffer.
+     * @param capacity the minimum capacity, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30.
+     */
+    public MpscArrayQueue(int capacity) {
+        super(capacity);
+        producerLimit = buffer.length;
+    }
+
+    /**
+     * Adds an element at the end of the queue if there is room. May be called by any thread.
+     * @param e the element to be enqueued.
+     * @return true if the element was added, false if the queue is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new IllegalArgumentException();
+        while (true) {
+            long limit = producerLimit;
+            long index = (long) PRODUCER_INDEX.getVolatile(this);
+            if (index >= limit) {
+                limit = (long) CONSUMER_INDEX.getAcquire(this) + buffer.length;
+                if (index >= limit) return false;
+                producerLimit = limit;
+            }
+            if (PRODUCER_INDEX.compareAndSet(this, index, index + 1)) {
+                SLOT.setRelease(buffer, (int) index & mask, e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, if there is one. Must only be called
+     * by the consumer thread.
+     * @return The element removed, or null if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E poll() {
+        long index = (long) CONSUMER_INDEX.getOpaque(this);
+        int slot = (int) index & mask;
+        Object element = SLOT.getAcquire(buffer, slot);
+        if (element == null) {
+            if (index == (long) PRODUCER_INDEX.getVolatile(this)) return null;
+            // the index was claimed, its producer is about to publish the element
+            do {
+                Thread.onSpinWait();
+                element = SLOT.getAcquire(buffer, slot);
+            } while (element == null);
+        }
+        buffer[slot] = null;
+        CONSUMER_INDEX.setRelease(this, index + 1);
+        return (E) element;
+    }
+}
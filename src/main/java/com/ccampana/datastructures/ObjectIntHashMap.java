@@ -0,0 +1,293 @@
+package com.ccampana.datastructures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * ObjectIntHashMap is a hash map specialized for int values. It offers the same operations as
+ * {@link HashMap}, but the values are never boxed: they are kept in a flat int array parallel to
+ * the array of keys. The hash function is given through the interface {@link HashCode}, as in
+ * {@link HashMap}.
+ * </p>
+ * <p>
+ * Collisions are resolved through linear probing over a table whose length is a power of two.
+ * Keys must not be null, since null marks an empty slot. Removals shift the following entries back
+ * instead of leaving tombstones.
+ * </p>
+ * <p>
+ * The maximum load within the hash map is 0.75 unless defined differently through the constructor.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link ObjectIntHashMap#put(K key, int value)} - adds a key-value pair to the hash map.</li>
+ * <li>{@link ObjectIntHashMap#addTo(K key, int delta)} - adds a delta to the value of a key.</li>
+ * <li>{@link ObjectIntHashMap#remove(K key)} - removes a key-value pair from the hash map.</li>
+ * <li>{@link ObjectIntHashMap#get(K key)} - returns the value associated with a key.</li>
+ * <li>{@link ObjectIntHashMap#getOrDefault(K key, int defaultValue)} - returns the value
+ * associated with a key, or a default value.</li>
+ * <li>{@link ObjectIntHashMap#containsKey(K key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link ObjectIntHashMap#keys()} - returns a list of all keys within the hash map.</li>
+ * <li>{@link ObjectIntHashMap#values()} - returns an array of all values within the hash map.</li>
+ * <li>{@link ObjectIntHashMap#size()} - Returns the size of the hash map.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see HashCode
+ * @param <K> The key type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class ObjectIntHashMap<K> {
+    /**
+     * The default maximum load of 0.75.
+     */
+    final static double DEFAULT_MAX_LOAD = 0.75;
+    /**
+     * Initial number of slots of the table. Must be a power of two.
+     */
+    final static int INITIAL_SLOTS = 16;
+    /**
+     * Returned by {@link ObjectIntHashMap#findSlot(K key)} when the key is not in the table.
+     */
+    final static int NOT_FOUND = -1;
+    /**
+     * The hash function interface, required by the constructors.
+     */
+    HashCode<K> hashFunction;
+    /**
+     * Keys of the table, null in empty slots.
+     */
+    Object[] keys;
+    /**
+     * Values of the table, parallel to {@link ObjectIntHashMap#keys}.
+     */
+    int[] values;
+    /**
+     * Private field that defines the maximum load of the hash map.
+     */
+    private final double maximumLoad;
+    /**
+     * The size of the hashmap.
+     */
+    private int size;
+
+    /**
+     * This constructor initializes the hashCode and all the variables.
+     * @param hashCode a class that implements the interface HashCode.
+     */
+    public ObjectIntHashMap(HashCode<K> hashCode) {
+        this(hashCode, DEFAULT_MAX_LOAD);
+    }
+
+    /**
+     * This constructor allows for a custom maximum load.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param maximumLoad the maximum load, between 0 and 1 exclusive.
+     * @throws IllegalArgumentException if the maximum load is out of range.
+     */
+    public ObjectIntHashMap(HashCode<K> hashCode, double maximumLoad) {
+        if (maximumLoad <= 0 || maximumLoad >= 1) throw new IllegalArgumentException();
+        this.hashFunction = hashCode;
+        this.maximumLoad = maximumLoad;
+        keys = new Object[INITIAL_SLOTS];
+        values = new int[INITIAL_SLOTS];
+        size = 0;
+    }
+
+    /**
+     * Adds a key-value pair to the hash map, replacing the previous value of the key.
+     * @param key the key used for indexing, must not be null.
+     * @param value value to be associated with the key.
+     */
+    public void put(K key, int value) {
+        int slot = findSlot(key);
+        if (slot != NOT_FOUND) {
+            values[slot] = value;
+            return;
+        }
+        insert(key, value);
+    }
+
+    /**
+     * Adds a delta to the value associated with a key. If the key is not in the map, it is
+     * added with the delta as its value. Useful for counters.
+     * @param key the key used for indexing, must not be null.
+     * @param delta the amount to be added.
+     * @return the new value associated with the key.
+     */
+    public int addTo(K key, int delta) {
+        int slot = findSlot(key);
+        if (slot != NOT_FOUND) return values[slot] += delta;
+        insert(key, delta);
+        return delta;
+    }
+
+    /**
+     * Removes a key-value pair based on a given key.
+     * @param key of the pair to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
+     */
+    public void remove(K key) {
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        shiftBack(slot);
+        --size;
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it. In case it does not exist,
+     * it throws a NoSuchElement exception.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     */
+    public int get(K key) {
+        int slot = findSlot(key);
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        return values[slot];
+    }
+
+    /**
+     * Returns the value associated with a key, or a default value if the key is not in the map.
+     * @param key to be searched.
+     * @param defaultValue returned when the key is not in the map.
+     * @return the value associated with the key, or the default value.
+     */
+    public int getOrDefault(K key, int defaultValue) {
+        int slot = findSlot(key);
+        return slot == NOT_FOUND ? defaultValue : values[slot];
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(K key) {
+        return findSlot(key) != NOT_FOUND;
+    }
+
+    /**
+     * Returns all the hash map keys in a list.
+     * @return a list containing all the keys.
+     */
+    @SuppressWarnings({"unchecked"})
+    public List<K> keys() {
+        List<K> result = new ArrayList<>();
+        for (Object key : keys) {
+            if (key != null) result.add((K) key);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all the hash map values in an array, in the same order as
+     * {@link ObjectIntHashMap#keys()}.
+     * @return an array containing all the values.
+     */
+    public int[] values() {
+        int[] result = new int[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) result[j++] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * The size of the hash map.
+     * @return the value of the private variable size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Maps a key to its home slot. The hash is spread so that the high bits also take part in
+     * the choice of the slot, since only the low bits are kept by the mask.
+     * @param key to be placed.
+     * @return the home slot of the key.
+     */
+    @SuppressWarnings({"unchecked"})
+    private int homeSlot(Object key) {
+        int hash = hashFunction.hashCode((K) key);
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    /**
+     * Finds the slot holding a key.
+     * @param key to be searched.
+     * @return the slot of the key, or {@link ObjectIntHashMap#NOT_FOUND}.
+     */
+    @SuppressWarnings({"unchecked"})
+    private int findSlot(K key) {
+        int mask = keys.length - 1;
+        for (int slot = homeSlot(key); keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashFunction.keyEquals((K) keys[slot], key)) return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Places a key known to be absent, growing the table first if needed.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     */
+    private void insert(K key, int value) {
+        if (size + 1 > maximumLoad * keys.length) grow();
+        int slot = emptySlot(key);
+        keys[slot] = key;
+        values[slot] = value;
+        ++size;
+    }
+
+    /**
+     * Finds the first empty slot of the probe sequence of a key.
+     * @param key to be placed.
+     * @return an empty slot.
+     */
+    private int emptySlot(Object key) {
+        int mask = keys.length - 1;
+        int slot = homeSlot(key);
+        while (keys[slot] != null) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving back every following entry of the cluster that would no longer
+     * be reachable from its home slot.
+     * @param gap the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int mask = keys.length - 1;
+        for (int slot = (gap + 1) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            int home = homeSlot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = null;
+    }
+
+    /**
+     * Doubles the table and places every entry again.
+     */
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = emptySlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package com.ccampana.datastructures;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * OffHeapHashMap is a hash map whose keys and values are kept outside the Java heap, in direct
+ * byte buffers. It is meant for very large maps: since the entries are not Java objects, the
+ * garbage collector does not have to trace them, and its pauses do not grow with the map.
+ * </p>
+ * <p>
+ * Keys and values are translated to bytes through the interface {@link Codec}, while the
+ * interface {@link HashCode} is still used to find their position, as in {@link HashMap}. Two keys
+ * are equal when their encoded bytes are equal.
+ * </p>
+ * <p>
+ * Each pair is written as a record at the end of a slab, a direct buffer of fixed size; a new slab
+ * is allocated when the current one is full. The index is an open-addressing table, also kept in
+ * direct buffers, that holds the reference to the record and the hash of its key, so that probing
+ * and growing the index never read the records. Replacing or removing a pair leaves its old record
+ * behind as garbage, which is reclaimed by {@link OffHeapHashMap#compact()}, called automatically
+ * once the garbage outgrows the live records.
+ * </p>
+ * <p>
+ * The maximum load of the index is 0.75.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link OffHeapHashMap#put(K key, V value)} - adds a key-value pair to the hash map.</li>
+ * <li>{@link OffHeapHashMap#remove(K key)} - removes a key-value pair from the hash map.</li>
+ * <li>{@link OffHeapHashMap#get(K key)} - returns the value associated with a key.</li>
+ * <li>{@link OffHeapHashMap#containsKey(K key)} - checks whether a key is in the hash map.</li>
+ * <li>{@link OffHeapHashMap#keys()} - returns a list of all keys within the hash map.</li>
+ * <li>{@link OffHeapHashMap#values()} - returns a list of all values within the hash map.</li>
+ * <li>{@link OffHeapHashMap#size()} - Returns the size of the hash map.</li>
+ * <li>{@link OffHeapHashMap#compact()} - rewrites the live records, releasing the garbage.</li>
+ * <li>{@link OffHeapHashMap#clear()} - removes every pair and releases the slabs.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see HashMap
+ * @see Codec
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class OffHeapHashMap<K, V> {
+    /**
+     * The default size of a slab, 64 MB.
+     */
+    final static int DEFAULT_SLAB_SIZE = 1 << 26;
+    /**
+     * The maximum load of the index.
+     */
+    final static double MAX_LOAD = 0.75;
+    /**
+     * Initial number of slots of the index. Must be a power of two.
+     */
+    final static int INITIAL_SLOTS = 16;
+    /**
+     * Largest number of slots of the index. The whole index must fit in one buffer, indexed by
+     * int, so MAXIMUM_SLOTS * SLOT_BYTES must not exceed Integer.MAX_VALUE.
+     */
+    final static int MAXIMUM_SLOTS = 1 << 27;
+    /**
+     * Bytes taken by each slot of the index: the reference to the record and the hash of its key.
+     */
+    final static int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+    /**
+     * Size of the header of a record, holding the lengths of the key and of the value.
+     */
+    final static int HEADER = 2 * Integer.BYTES;
+    /**
+     * Marks an empty slot of the index.
+     */
+    final static long EMPTY = 0;
+    /**
+     * Returned by {@link OffHeapHashMap#findSlot(int hash, int keyLength)} when the key is not in
+     * the index.
+     */
+    final static int NOT_FOUND = -1;
+
+    /**
+     * The hash function interface, required by the constructors.
+     */
+    final HashCode<K> hashFunction;
+    /**
+     * Translates the keys to bytes.
+     */
+    final Codec<K> keyCodec;
+    /**
+     * Translates the values to bytes.
+     */
+    final Codec<V> valueCodec;
+    /**
+     * The size of each slab in bytes.
+     */
+    final int slabSize;
+    /**
+     * The buffer holding the whole index; {@link OffHeapHashMap#references} and
+     * {@link OffHeapHashMap#hashes} are views of it.
+     */
+    ByteBuffer index;
+    /**
+     * References to the records, {@link OffHeapHashMap#EMPTY} in empty slots. A reference holds
+     * the slab number plus one in its high half and the offset within the slab in its low half.
+     */
+    LongBuffer references;
+    /**
+     * The spread hash of the key of each slot, parallel to {@link OffHeapHashMap#references}.
+     */
+    IntBuffer hashes;
+    /**
+     * The slabs holding the records, by slab number. The numbers of the slabs in use always form
+     * the range from {@link OffHeapHashMap#firstSlab} to {@link OffHeapHashMap#currentSlab}.
+     */
+    LongObjectHashMap<ByteBuffer> slabs;
+    /**
+     * Number of the oldest slab in use.
+     */
+    int firstSlab;
+    /**
+     * Number of the slab receiving new records.
+     */
+    int currentSlab;
+    /**
+     * Offset of the first free byte of the current slab.
+     */
+    int tail;
+    /**
+     * Number of slots of the index.
+     */
+    int capacity;
+    /**
+     * Bytes taken by the records still referenced by the index.
+     */
+    long liveBytes;
+    /**
+     * Bytes taken by replaced or removed records.
+     */
+    long garbageBytes;
+    /**
+     * Heap buffer holding the encoded key of the current operation.
+     */
+    ByteBuffer scratch;
+    /**
+     * The size of the hashmap.
+     */
+    int size;
+
+    /**
+     * This constructor initializes the hashCode, the codecs and all the variables, using slabs of
+     * 64 MB.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param keyCodec translates the keys to bytes.
+     * @param valueCodec translates the values to bytes.
+     */
+    public OffHeapHashMap(HashCode<K> hashCode, Codec<K> keyCodec, Codec<V> valueCodec) {
+        this(hashCode, keyCodec, valueCodec, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * This constructor allows for a custom slab size. No record may be larger than a slab. The
+     * map starts with an empty index of the initial size and no slab; the first slab is created
+     * by the first write, so a subclass keeping its slabs elsewhere may replace the index and the
+     * slabs before any is allocated.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param keyCodec translates the keys to bytes.
+     * @param valueCodec translates the values to bytes.
+     * @param slabSize the size of each slab in bytes.
+     * @throws IllegalArgumentException if the slab size cannot hold a record header.
+     */
+    public OffHeapHashMap(HashCode<K> hashCode, Codec<K> keyCodec, Codec<V> valueCodec, int slabSize) {
+        if (slabSize <= HEADER) throw new IllegalArgumentException();
+        this.hashFunction = hashCode;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.slabSize = slabSize;
+        this.scratch = ByteBuffer.allocate(64);
+        this.slabs = new LongObjectHashMap<>(number -> (int) number);
+        this.capacity = INITIAL_SLOTS;
+        useIndex(newIndex(capacity), capacity);
+        // an empty range of slabs, with the current one full so that the first write creates slab 0
+        this.firstSlab = 0;
+        this.currentSlab = -1;
+        this.tail = slabSize;
+    }
+
+    /**
+     * Adds a key-value pair to the hash map. If the key is already there, a new record is written
+     * and the old one becomes garbage.
+     * @param key the key used for indexing.
+     * @param value value to be associated with the key.
+     * @throws IllegalArgumentException if the record does not fit in a slab.
+     */
+    public void put(K key, V value) {
+        int hash = hash(key);
+        int keyLength = encodeKey(key);
+        int slot = findSlot(hash, keyLength);
+        if (slot != NOT_FOUND) {
+            long reference = writeRecord(keyLength, value);
+            garbageBytes += recordLength(references.get(slot));
+            liveBytes -= recordLength(references.get(slot));
+            references.put(slot, reference);
+        } else {
+            if (size + 1 > MAX_LOAD * capacity) grow();
+            long reference = writeRecord(keyLength, value);
+            slot = emptySlot(hash);
+            references.put(slot, reference);
+            hashes.put(slot, hash);
+            ++size;
+        }
+        checkCompaction();
+    }
+
+    /**
+     * Removes a value based on a given key. The record becomes garbage.
+     * @param key of the object to be removed from the hash map.
+     * @throws NoSuchElementException if the key is not in the hash map.
+     */
+    public void remove(K key) {
+        int slot = findSlot(hash(key), encodeKey(key));
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        int length = recordLength(references.get(slot));
+        garbageBytes += length;
+        liveBytes -= length;
+        shiftBack(slot);
+        --size;
+        checkCompaction();
+    }
+
+    /**
+     * Using a key value, it returns a value associated with it, decoded from its record. In case
+     * it does not exist, it throws a NoSuchElement exception.
+     * @param key to be searched.
+     * @return a value associated with the given key.
+     * @see NoSuchElementException
+     */
+    public V get(K key) {
+        int slot = findSlot(hash(key), encodeKey(key));
+        if (slot == NOT_FOUND) throw new NoSuchElementException();
+        return readValue(references.get(slot));
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key to be searched.
+     * @return true if the key is in the map.
+     */
+    public boolean containsKey(K key) {
+        return findSlot(hash(key), encodeKey(key)) != NOT_FOUND;
+    }
+
+    /**
+     * Returns all the hash map keys in a list, decoded from their records.
+     * @return a list containing all the keys.
+     */
+    public List<K> keys() {
+        List<K> keys = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            long reference = references.get(i);
+            if (reference == EMPTY) continue;
+            ByteBuffer slab = slabOf(reference);
+            int offset = offsetOf(reference);
+            slab.position(offset + HEADER);
+            keys.add(keyCodec.decode(slab, slab.getInt(offset)));
+        }
+        return keys;
+    }
+
+    /**
+     * Returns all the hash map values in a list, decoded from their records.
+     * @return a list containing all the values.
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            long reference = references.get(i);
+            if (reference != EMPTY) values.add(readValue(reference));
+        }
+        return values;
+    }
+
+    /**
+     * The size of the hash map.
+     * @return the value of the private variable size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies every live record to new slabs, one after the other, and releases the old slabs
+     * with all their garbage once the index refers only to the new ones.
+     */
+    public void compact() {
+        int oldFirst = firstSlab;
+        int oldCurrent = currentSlab;
+        nextSlab();
+        int newFirst = currentSlab;
+        for (int i = 0; i < capacity; i++) {
+            long reference = references.get(i);
+            if (reference == EMPTY) continue;
+            ByteBuffer source = slabOf(reference);
+            int offset = offsetOf(reference);
+            int length = HEADER + source.getInt(offset) + source.getInt(offset + Integer.BYTES);
+            reserve(length);
+            slab(currentSlab).put(tail, source, offset, length);
+            references.put(i, referenceOf(currentSlab, tail));
+            tail += length;
+        }
+        firstSlab = newFirst;
+        garbageBytes = 0;
+        for (int number = oldFirst; number <= oldCurrent; number++) releaseSlab(number);
+    }
+
+    /**
+     * Removes every pair, shrinking the index to its initial size and starting a new slab. The
+     * old slabs are released once the new index is in use.
+     */
+    public void clear() {
+        int oldFirst = firstSlab;
+        int oldCurrent = currentSlab;
+        capacity = INITIAL_SLOTS;
+        useIndex(newIndex(capacity), capacity);
+        nextSlab();
+        firstSlab = currentSlab;
+        liveBytes = 0;
+        garbageBytes = 0;
+        size = 0;
+        for (int number = oldFirst; number <= oldCurrent; number++) releaseSlab(number);
+    }
+
+    /**
+     * Spreads the hash given by the hash function, so that the high bits also take part in the
+     * choice of the slot, since only the low bits are kept by the mask.
+     * @param key to be hashed.
+     * @return the spread hash of the key.
+     */
+    private int hash(K key) {
+        int hash = hashFunction.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Encodes a key into the scratch buffer, growing it if needed.
+     * @param key to be encoded.
+     * @return the length of the encoded key.
+     * @throws IllegalStateException if the codec did not write the announced number of bytes.
+     */
+    private int encodeKey(K key) {
+        int length = keyCodec.sizeOf(key);
+        if (length > scratch.capacity()) scratch = ByteBuffer.allocate(Math.max(length, scratch.capacity() * 2));
+        scratch.clear();
+        keyCodec.encode(key, scratch);
+        if (scratch.position() != length) throw new IllegalStateException();
+        return length;
+    }
+
+    /**
+     * Finds the slot of the key held by the scratch buffer. The bytes of a record are only
+     * compared when its stored hash matches.
+     * @param hash the spread hash of the key.
+     * @param keyLength the length of the encoded key.
+     * @return the slot of the key, or {@link OffHeapHashMap#NOT_FOUND}.
+     */
+    private int findSlot(int hash, int keyLength) {
+        int mask = capacity - 1;
+        for (int slot = hash & mask; references.get(slot) != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes.get(slot) == hash && keyEquals(references.get(slot), keyLength)) return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Compares the key of a record with the key held by the scratch buffer, eight bytes at a
+     * time.
+     * @param reference the reference to the record.
+     * @param keyLength the length of the encoded key.
+     * @return true if both keys have the same bytes.
+     */
+    private boolean keyEquals(long reference, int keyLength) {
+        ByteBuffer slab = slabOf(reference);
+        int offset = offsetOf(reference);
+        if (slab.getInt(offset) != keyLength) return false;
+        int start = offset + HEADER;
+        int i = 0;
+        for (; i + Long.BYTES <= keyLength; i += Long.BYTES) {
+            if (slab.getLong(start + i) != scratch.getLong(i)) return false;
+        }
+        for (; i < keyLength; i++) {
+            if (slab.get(start + i) != scratch.get(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first empty slot of the probe sequence of a hash.
+     * @param hash the spread hash of the key.
+     * @return an empty slot.
+     */
+    private int emptySlot(int hash) {
+        int mask = capacity - 1;
+        int slot = hash & mask;
+        while (references.get(slot) != EMPTY) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    /**
+     * Empties a slot, moving back every following entry of the cluster that would no longer
+     * be reachable from its home slot.
+     * @param gap the slot being emptied.
+     */
+    private void shiftBack(int gap) {
+        int mask = capacity - 1;
+        for (int slot = (gap + 1) & mask; references.get(slot) != EMPTY; slot = (slot + 1) & mask) {
+            int home = hashes.get(slot) & mask;
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                references.put(gap, references.get(slot));
+                hashes.put(gap, hashes.get(slot));
+                gap = slot;
+            }
+        }
+        references.put(gap, EMPTY);
+    }
+
+    /**
+     * Doubles the index and places every reference again, using the stored hashes.
+     * @throws IllegalStateException if the index cannot grow anymore.
+     */
+    private void grow() {
+        if (capacity >= MAXIMUM_SLOTS) throw new IllegalStateException();
+        LongBuffer oldReferences = references;
+        IntBuffer oldHashes = hashes;
+        int oldCapacity = capacity;
+        capacity *= 2;
+        useIndex(newIndex(capacity), capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            if (oldReferences.get(i) == EMPTY) continue;
+            int slot = emptySlot(oldHashes.get(i));
+            references.put(slot, oldReferences.get(i));
+            hashes.put(slot, oldHashes.get(i));
+        }
+    }
+
+    /**
+     * Splits the buffer of an index into its references and its hashes.
+     * @param index a zeroed buffer of {@link OffHeapHashMap#SLOT_BYTES} bytes per slot.
+     * @param slots the number of slots.
+     */
+    void useIndex(ByteBuffer index, int slots) {
+        this.index = index;
+        references = index.slice(0, slots * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        hashes = index.slice(slots * Long.BYTES, slots * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    /**
+     * Appends a record with the key held by the scratch buffer and the given value.
+     * @param keyLength the length of the encoded key.
+     * @param value the value to be encoded.
+     * @return the reference to the new record.
+     * @throws IllegalStateException if the codec did not write the announced number of bytes.
+     */
+    private long writeRecord(int keyLength, V value) {
+        int valueLength = valueCodec.sizeOf(value);
+        int length = HEADER + keyLength + valueLength;
+        reserve(length);
+        ByteBuffer slab = slab(currentSlab);
+        slab.putInt(tail, keyLength);
+        slab.putInt(tail + Integer.BYTES, valueLength);
+        slab.put(tail + HEADER, scratch, 0, keyLength);
+        slab.position(tail + HEADER + keyLength);
+        valueCodec.encode(value, slab);
+        if (slab.position() != tail + length) throw new IllegalStateException();
+        long reference = referenceOf(currentSlab, tail);
+        tail += length;
+        liveBytes += length;
+        return reference;
+    }
+
+    /**
+     * Makes sure the current slab has room for a record, moving to a new slab otherwise.
+     * @param length the length of the record.
+     * @throws IllegalArgumentException if the record is larger than a slab.
+     */
+    private void reserve(int length) {
+        if (length > slabSize || length < 0) throw new IllegalArgumentException();
+        if (tail + length > slabSize) nextSlab();
+    }
+
+    /**
+     * Creates the slab following the current one and makes it current.
+     */
+    private void nextSlab() {
+        ++currentSlab;
+        slabs.put(currentSlab, createSlab(currentSlab));
+        tail = 0;
+    }
+
+    /**
+     * Decodes the value of a record.
+     * @param reference the reference to the record.
+     * @return the decoded value.
+     */
+    private V readValue(long reference) {
+        ByteBuffer slab = slabOf(reference);
+        int offset = offsetOf(reference);
+        slab.position(offset + HEADER + slab.getInt(offset));
+        return valueCodec.decode(slab, slab.getInt(offset + Integer.BYTES));
+    }
+
+    /**
+     * Compacts the slabs once the garbage is larger than both the live records and a slab.
+     */
+    private void checkCompaction() {
+        if (garbageBytes > liveBytes && garbageBytes > slabSize) compact();
+    }
+
+    /**
+     * Returns the total length of a record.
+     * @param reference the reference to the record.
+     * @return the length of the header, key and value.
+     */
+    private int recordLength(long reference) {
+        ByteBuffer slab = slabOf(reference);
+        int offset = offsetOf(reference);
+        return HEADER + slab.getInt(offset) + slab.getInt(offset + Integer.BYTES);
+    }
+
+    private ByteBuffer slabOf(long reference) {
+        return slab((int) (reference >>> 32) - 1);
+    }
+
+    /**
+     * Allocates the memory of a new slab. Subclasses may keep it elsewhere than in a direct
+     * buffer.
+     * @param number the number of the slab.
+     * @return a buffer of {@link OffHeapHashMap#slabSize} bytes.
+     */
+    ByteBuffer createSlab(int number) {
+        return ByteBuffer.allocateDirect(slabSize);
+    }
+
+    /**
+     * Returns a slab in use.
+     * @param number the number of the slab.
+     * @return the buffer of the slab.
+     */
+    ByteBuffer slab(int number) {
+        return slabs.get(number);
+    }
+
+    /**
+     * Releases a slab that the index no longer refers to.
+     * @param number the number of the slab.
+     */
+    void releaseSlab(int number) {
+        slabs.remove(number);
+    }
+
+    /**
+     * Allocates a new, zeroed index.
+     * @param slots the number of slots.
+     * @return a buffer of {@link OffHeapHashMap#SLOT_BYTES} bytes per slot.
+     */
+    private static ByteBuffer newIndex(int slots) {
+        return ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+    }
+
+    private static int offsetOf(long reference) {
+        return (int) reference;
+    }
+
+    private static long referenceOf(int slab, int offset) {
+        return ((long) (slab + 1) << 32) | offset;
+    }
+}
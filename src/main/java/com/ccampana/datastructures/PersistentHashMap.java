@@ -0,0 +1,370 @@
+package com.ccampana.datastructures;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * PersistentHashMap is an {@link OffHeapHashMap} whose index and slabs live in memory-mapped files
+ * inside a directory. Opening a directory that already holds a map only maps its index and reads
+ * a small header, so the map is usable right away; the operating system pages the index and the
+ * records in lazily as they are touched, and each slab file is only mapped the first time one of its
+ * records is read.
+ * </p>
+ * <p>
+ * The directory holds a file named {@code index}, with a header followed by the slots of the
+ * index, and one file per slab, named {@code slab-} followed by its number.
+ * </p>
+ * <p>
+ * {@link PersistentHashMap#sync()} is the commit point of the map. Records are only ever appended
+ * to the slabs, past the end recorded by the last sync, and the index file is mapped privately:
+ * changes to the index, including its growth, stay in memory and never reach the index file. A
+ * sync forces the slabs to the disk, writes the whole index with its header into a new file,
+ * forces it and moves it over the old index file in a single step; only then are the slabs
+ * released by {@link OffHeapHashMap#compact()} or {@link OffHeapHashMap#clear()} deleted. So the
+ * files referred to by the index on the disk are never modified nor deleted, and after a crash
+ * the map reopens in the state of the last sync, losing every change made since. Slab files
+ * written after that sync are deleted when the map is opened.
+ * </p>
+ * <p>
+ * A sync writes the whole index, so its cost grows with the capacity of the map rather than with
+ * the number of changes. {@link PersistentHashMap#snapshot(Path)} syncs the map and copies it into
+ * another directory.
+ * </p>
+ * <ul>
+ * Supported operations, besides those of the OffHeapHashMap:
+ * <li>{@link PersistentHashMap#sync()} - commits every change to the disk.</li>
+ * <li>{@link PersistentHashMap#snapshot(Path)} - copies the map into another directory.</li>
+ * <li>{@link PersistentHashMap#close()} - syncs and releases the map.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see OffHeapHashMap
+ * @param <K> The key type.
+ * @param <V> The value type.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class PersistentHashMap<K, V> extends OffHeapHashMap<K, V> implements AutoCloseable {
+    /**
+     * Identifies the index file of a map.
+     */
+    final static int MAGIC = 0x50484D31;
+    /**
+     * Size of the header at the start of the index file.
+     */
+    final static int FILE_HEADER = 64;
+    /**
+     * Name of the index file.
+     */
+    final static String INDEX = "index";
+    /**
+     * Name of the index file while it is being written by a sync.
+     */
+    final static String NEXT_INDEX = "index.next";
+    /**
+     * Prefix of the name of the slab files.
+     */
+    final static String SLAB_PREFIX = "slab-";
+
+    /**
+     * The directory holding the files of the map.
+     */
+    final Path directory;
+    /**
+     * Numbers of the slabs released since the last sync. Their files are deleted once the next
+     * index file is in place.
+     */
+    IntArrayList releasedSlabs;
+
+    /**
+     * Opens the map stored in a directory, or creates an empty one using slabs of 64 MB.
+     * @param directory the directory holding the files of the map.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param keyCodec translates the keys to bytes.
+     * @param valueCodec translates the values to bytes.
+     * @throws IOException if the files cannot be created or mapped.
+     */
+    public PersistentHashMap(Path directory, HashCode<K> hashCode, Codec<K> keyCodec, Codec<V> valueCodec)
+            throws IOException {
+        this(directory, hashCode, keyCodec, valueCodec, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Opens the map stored in a directory, or creates an empty one using slabs of the given size.
+     * An existing map keeps the slab size it was created with.
+     * @param directory the directory holding the files of the map.
+     * @param hashCode a class that implements the interface HashCode.
+     * @param keyCodec translates the keys to bytes.
+     * @param valueCodec translates the values to bytes.
+     * @param slabSize the size of each slab in bytes, for a new map.
+     * @throws IOException if the files cannot be created or mapped, or if the index file is not
+     *                     valid.
+     */
+    public PersistentHashMap(Path directory, HashCode<K> hashCode, Codec<K> keyCodec, Codec<V> valueCodec,
+                             int slabSize) throws IOException {
+        super(hashCode, keyCodec, valueCodec, storedSlabSize(directory, slabSize));
+        this.directory = directory;
+        this.releasedSlabs = new IntArrayList();
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(NEXT_INDEX));
+        if (Files.exists(directory.resolve(INDEX))) {
+            open();
+            deleteUnusedSlabs();
+        } else {
+            try {
+                clear();
+                sync();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Commits every change to the disk: forces the slabs, writes the index into a new file, forces
+     * it and atomically moves it over the old index file, then deletes the files of the released
+     * slabs. A crash at any point leaves either the previous or the new commit on the disk.
+     * @throws UncheckedIOException if the files cannot be written.
+     */
+    public void sync() {
+        for (long number : slabs.keys()) {
+            ByteBuffer slab = slabs.get(number);
+            if (slab instanceof MappedByteBuffer) ((MappedByteBuffer) slab).force();
+        }
+        try {
+            Path next = directory.resolve(NEXT_INDEX);
+            try (FileChannel channel = FileChannel.open(next, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                write(channel, header(), 0);
+                ByteBuffer slots = index.duplicate();
+                slots.clear();
+                write(channel, slots, FILE_HEADER);
+                channel.force(true);
+            }
+            Files.move(next, directory.resolve(INDEX), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            forceDirectory();
+            for (int i = 0; i < releasedSlabs.size(); i++) Files.deleteIfExists(slabPath(releasedSlabs.get(i)));
+            releasedSlabs.clear();
+            mapIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Syncs the map and copies its files into another directory, which can later be opened as an
+     * independent map.
+     * @param target the directory receiving the copy. It must not hold a map already.
+     * @throws IOException if the files cannot be copied.
+     */
+    public void snapshot(Path target) throws IOException {
+        sync();
+        Files.createDirectories(target);
+        for (int number = firstSlab; number <= currentSlab; number++) {
+            Files.copy(slabPath(number), target.resolve(slabName(number)));
+        }
+        Files.copy(directory.resolve(INDEX), target.resolve(INDEX));
+    }
+
+    /**
+     * Syncs the map and drops its mappings. The map must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        sync();
+        slabs = new LongObjectHashMap<>(number -> (int) number);
+        index = null;
+        references = null;
+        hashes = null;
+    }
+
+    /**
+     * Reads the header of an existing index file and maps the index. The slabs are mapped later,
+     * when first needed.
+     * @throws IOException if the index file cannot be mapped or is not valid.
+     */
+    private void open() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(INDEX), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+            if (channel.read(header, 0) < FILE_HEADER || header.getInt(0) != MAGIC) throw new IOException("Not a map index");
+            capacity = header.getInt(8);
+            size = header.getInt(12);
+            firstSlab = header.getInt(16);
+            currentSlab = header.getInt(20);
+            tail = header.getInt(24);
+            liveBytes = header.getLong(32);
+            garbageBytes = header.getLong(40);
+            if (capacity < INITIAL_SLOTS || capacity > MAXIMUM_SLOTS || Integer.bitCount(capacity) != 1) {
+                throw new IOException("Invalid map index capacity");
+            }
+            if (channel.size() < FILE_HEADER + (long) capacity * SLOT_BYTES) throw new IOException("Truncated map index");
+        }
+        mapIndex();
+    }
+
+    /**
+     * Maps the slots of the index file privately: the map reads them from the file, but its
+     * changes are kept in memory until the next sync.
+     * @throws IOException if the index file cannot be mapped.
+     */
+    private void mapIndex() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(INDEX), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.PRIVATE, 0, FILE_HEADER + (long) capacity * SLOT_BYTES);
+            useIndex(file.slice(FILE_HEADER, capacity * SLOT_BYTES), capacity);
+        }
+    }
+
+    /**
+     * Deletes the slab files outside the range in use, left by changes made after the last sync
+     * or by a sync interrupted before deleting the released slabs.
+     * @throws IOException if the directory cannot be read or a file cannot be deleted.
+     */
+    private void deleteUnusedSlabs() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SLAB_PREFIX + "*")) {
+            for (Path file : files) {
+                int number;
+                try {
+                    number = Integer.parseInt(file.getFileName().toString().substring(SLAB_PREFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (number < firstSlab || number > currentSlab) Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Writes the counters of the map into a new header.
+     * @return the header, ready to be written.
+     */
+    private ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        header.putInt(0, MAGIC);
+        header.putInt(4, slabSize);
+        header.putInt(8, capacity);
+        header.putInt(12, size);
+        header.putInt(16, firstSlab);
+        header.putInt(20, currentSlab);
+        header.putInt(24, tail);
+        header.putLong(32, liveBytes);
+        header.putLong(40, garbageBytes);
+        return header;
+    }
+
+    /**
+     * Forces the directory entry of the moved index file to the disk, where the platform allows
+     * opening a directory; elsewhere the move is durable once the file system commits it.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened on every platform
+        }
+    }
+
+    /**
+     * Writes a whole buffer at a position of a file.
+     * @param channel the file.
+     * @param buffer the bytes to be written.
+     * @param position the position in the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+
+    /**
+     * Returns the slab size recorded in an existing index file, or the requested one for a new
+     * map.
+     * @param directory the directory holding the files of the map.
+     * @param slabSize the requested slab size.
+     * @return the slab size to be used.
+     * @throws IOException if the index file cannot be read.
+     */
+    private static int storedSlabSize(Path directory, int slabSize) throws IOException {
+        Path index = directory.resolve(INDEX);
+        if (!Files.exists(index)) return slabSize;
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC ? header.getInt(4) : slabSize;
+        }
+    }
+
+    /**
+     * Maps a file for reading and writing, creating or extending it to the given size.
+     * @param path the file to be mapped.
+     * @param length the size of the mapping.
+     * @return the mapping of the file.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private static MappedByteBuffer map(Path path, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+    }
+
+    private Path slabPath(int number) {
+        return directory.resolve(slabName(number));
+    }
+
+    private static String slabName(int number) {
+        return SLAB_PREFIX + number;
+    }
+
+    /**
+     * Creates the file of a new slab and maps it. Slab numbers only grow, so the file never
+     * belongs to the last sync.
+     */
+    @Override
+    ByteBuffer createSlab(int number) {
+        try {
+            Files.deleteIfExists(slabPath(number));
+            return map(slabPath(number), slabSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a slab, mapping its file the first time it is needed.
+     */
+    @Override
+    ByteBuffer slab(int number) {
+        if (!slabs.containsKey(number)) {
+            try {
+                slabs.put(number, map(slabPath(number), slabSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return slabs.get(number);
+    }
+
+    /**
+     * Drops the mapping of a slab. Its file may still be referred to by the index on the disk, so
+     * it is only deleted by the next sync.
+     */
+    @Override
+    void releaseSlab(int number) {
+        if (slabs.containsKey(number)) slabs.remove(number);
+        releasedSlabs.add(number);
+    }
+}
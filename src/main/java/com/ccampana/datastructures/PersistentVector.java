@@ -0,0 +1,498 @@
+package com.ccampana.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * PersistentVector is an immutable list. Instead of changing the list, {@link PersistentVector#append(E)},
+ * {@link PersistentVector#set(int, E)} and {@link PersistentVector#pop()} return a new version,
+ * and the old version stays valid. Both versions share almost all of their memory, so a version
+ * can be handed to other threads as a consistent view without copying the list, and without any
+ * locking, since no version ever changes.
+ * </p>
+ * <p>
+ * The elements are stored in a trie of 32-way nodes, the leaves of which hold the elements in
+ * order; the bits of an index, five at a time, select the path from the root to its leaf. A new
+ * version only copies the nodes on one path, which is never deeper than 7 levels. The last
+ * elements, up to 32, are kept apart in a tail array, so that appending usually copies only the
+ * tail.
+ * </p>
+ * <p>
+ * To build a vector with many changes, {@link PersistentVector#builder()} gives a
+ * {@link Builder}, which changes in place the nodes it created itself. Its
+ * {@link Builder#snapshot()} returns a vector of the current content in constant time; the
+ * builder can still be used afterwards, copying the nodes it now shares with the snapshot when it
+ * first changes them.
+ * </p>
+ * <p>
+ * Since the vector never changes, the methods of {@link List} that would change it throw an
+ * UnsupportedOperationException.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link PersistentVector#append(E element)} - returns a version with an element added at the
+ * end.</li>
+ * <li>{@link PersistentVector#set(int index, E element)} - returns a version with the element at
+ * an index replaced.</li>
+ * <li>{@link PersistentVector#pop()} - returns a version without the last element.</li>
+ * <li>{@link PersistentVector#get(int index)} - returns the element at an index.</li>
+ * <li>{@link PersistentVector#indexOf(E element)} - returns the index of an element.</li>
+ * <li>{@link PersistentVector#toBuilder()} - returns a builder starting from this version.</li>
+ * <li>{@link PersistentVector#size()} - Returns the number of elements.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see List
+ * @param <E> The type of the elements.
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class PersistentVector<E> implements List<E> {
+    /**
+     * Number of bits of an index consumed by each level of the trie.
+     */
+    final static int BITS = 5;
+    /**
+     * Number of children of each node.
+     */
+    final static int WIDTH = 1 << BITS;
+    /**
+     * Selects the bits of an index consumed by one level.
+     */
+    final static int MASK = WIDTH - 1;
+    /**
+     * Used in the method indexOf to denote an element that is not present in the vector.
+     */
+    final static int NOT_FOUND = -1;
+
+    /**
+     * Keeps the number of elements.
+     */
+    final int size;
+    /**
+     * Number of index bits below the root, a multiple of {@link PersistentVector#BITS}.
+     */
+    final int shift;
+    /**
+     * The root of the trie, holding every element before the tail.
+     */
+    final Node root;
+    /**
+     * The last elements, exactly as many as there are after the trie.
+     */
+    final Object[] tail;
+
+    /**
+     * Creates an empty vector.
+     */
+    public PersistentVector() {
+        this(0, BITS, new Node(null, new Object[WIDTH]), new Object[0]);
+    }
+
+    private PersistentVector(int size, int shift, Node root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Returns a builder starting from an empty vector.
+     * @param <E> The type of the elements.
+     * @return an empty builder.
+     */
+    public static <E> Builder<E> builder() {
+        return new PersistentVector<E>().toBuilder();
+    }
+
+    /**
+     * Returns a builder starting from the content of this vector, in constant time. The vector
+     * itself is never changed by the builder.
+     * @return a builder with the elements of this vector.
+     */
+    public Builder<E> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    /**
+     * Returns a new version with an element added at the end.
+     * @param element element to be added.
+     * @return the new version.
+     */
+    public PersistentVector<E> append(E element) {
+        if (size - tailOffset(size) < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+        Node newRoot;
+        int newShift = shift;
+        Node tailNode = new Node(null, tail);
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(null, size, shift, root, tailNode);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    /**
+     * Returns a new version with the element at an index replaced.
+     * @param index index of the element.
+     * @param element the new element.
+     * @return the new version.
+     * @throws NoSuchElementException if the index is not within the vector.
+     */
+    public PersistentVector<E> set(int index, E element) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        if (index >= tailOffset(size)) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(null, shift, root, index, element), tail);
+    }
+
+    /**
+     * Returns a new version without the last element.
+     * @return the new version.
+     * @throws NoSuchElementException if the vector is empty.
+     */
+    public PersistentVector<E> pop() throws NoSuchElementException {
+        if (size == 0) throw new NoSuchElementException();
+        if (size == 1) return new PersistentVector<>();
+        if (tail.length > 1) {
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        }
+        Object[] newTail = leafFor(size - 2);
+        Node newRoot = popTail(size, shift, root);
+        int newShift = shift;
+        if (newRoot == null) newRoot = new Node(null, new Object[WIDTH]);
+        if (shift > BITS && newRoot.array[1] == null) {
+            newRoot = (Node) newRoot.array[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    /**
+     * Returns the element at an index, walking at most 7 levels of the trie.
+     * @param index index of the element.
+     * @return the element at the index.
+     * @throws NoSuchElementException if the index is not within the vector.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E get(int index) throws NoSuchElementException {
+        if (index < 0 || index >= size) throw new NoSuchElementException();
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Finds the index of the first occurrence of an element, walking the leaves in order.
+     * @param element element to be searched.
+     * @return the index of the element, or {@link PersistentVector#NOT_FOUND}.
+     */
+    @Override
+    public int indexOf(E element) {
+        if (element == null) return NOT_FOUND;
+        for (int base = 0; base < size; base += WIDTH) {
+            Object[] leaf = leafFor(base);
+            int length = Math.min(WIDTH, size - base);
+            for (int i = 0; i < length; i++) {
+                if (element.equals(leaf[i])) return base + i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Copies the elements into an array, one leaf at a time.
+     * @return an array with the elements.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E[] toArray() {
+        Object[] array = new Object[size];
+        for (int base = 0; base < size; base += WIDTH) {
+            System.arraycopy(leafFor(base), 0, array, base, Math.min(WIDTH, size - base));
+        }
+        return (E[]) array;
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return the size of the vector.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * If size is 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the vector is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Not supported, since the vector never changes.
+     * @throws UnsupportedOperationException always. Use {@link PersistentVector#append(E)}.
+     */
+    @Override
+    public void add(E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported, since the vector never changes.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void remove(E element) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Not supported, since the vector never changes.
+     * @throws UnsupportedOperationException always. Use {@link PersistentVector#PersistentVector()}.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a string with all the elements of the vector.
+     * @return a string with all the elements of the vector.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[");
+        for (int i = 0; i < size; i++) sb.append(get(i)).append(" ");
+        sb.append("]");
+        return sb.toString();
+    }
+
+    /**
+     * Returns the array holding the element at an index, either a leaf of the trie or the tail.
+     */
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset(size)) return tail;
+        return leafFor(root, shift, index);
+    }
+
+    /**
+     * Walks from a root down to the leaf holding an index.
+     */
+    static Object[] leafFor(Node root, int shift, int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) node = (Node) node.array[(index >>> level) & MASK];
+        return node.array;
+    }
+
+    /**
+     * The index of the first element of the tail, for a given size.
+     */
+    static int tailOffset(int size) {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    /**
+     * Returns a node that the owner may change: the node itself if it belongs to the owner, a
+     * copy belonging to the owner otherwise. Nodes of immutable vectors belong to no owner.
+     */
+    static Node editable(Object owner, Node node) {
+        if (owner != null && node.owner == owner) return node;
+        return new Node(owner, node.array.clone());
+    }
+
+    /**
+     * Builds a path of new nodes down to a leaf.
+     */
+    static Node newPath(Object owner, int level, Node leaf) {
+        if (level == 0) return leaf;
+        Node node = new Node(owner, new Object[WIDTH]);
+        node.array[0] = newPath(owner, level - BITS, leaf);
+        return node;
+    }
+
+    /**
+     * Adds a full tail as the next leaf of the trie, copying the path to it unless it belongs
+     * to the owner.
+     * @param size the number of elements, tail included.
+     */
+    static Node pushTail(Object owner, int size, int level, Node parent, Node tailNode) {
+        Node node = editable(owner, parent);
+        int child = ((size - 1) >>> level) & MASK;
+        Node inserted;
+        if (level == BITS) {
+            inserted = tailNode;
+        } else {
+            Node next = (Node) parent.array[child];
+            inserted = next != null ? pushTail(owner, size, level - BITS, next, tailNode)
+                    : newPath(owner, level - BITS, tailNode);
+        }
+        node.array[child] = inserted;
+        return node;
+    }
+
+    /**
+     * Replaces an element of the trie, copying the path to it unless it belongs to the owner.
+     */
+    static Node assoc(Object owner, int level, Node parent, int index, Object element) {
+        Node node = editable(owner, parent);
+        if (level == 0) {
+            node.array[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            node.array[child] = assoc(owner, level - BITS, (Node) parent.array[child], index, element);
+        }
+        return node;
+    }
+
+    /**
+     * Removes the last leaf of the trie, returning null for a node left empty.
+     * @param size the number of elements before the removal, tail included.
+     */
+    static Node popTail(int size, int level, Node parent) {
+        int child = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Node newChild = popTail(size, level - BITS, (Node) parent.array[child]);
+            if (newChild == null && child == 0) return null;
+            Node node = editable(null, parent);
+            node.array[child] = newChild;
+            return node;
+        }
+        if (child == 0) return null;
+        Node node = editable(null, parent);
+        node.array[child] = null;
+        return node;
+    }
+
+    /**
+     * A node of the trie. Leaves hold elements, the others hold nodes.
+     */
+    static class Node {
+        /**
+         * The builder allowed to change this node in place, or null.
+         */
+        final Object owner;
+        final Object[] array;
+
+        Node(Object owner, Object[] array) {
+            this.owner = owner;
+            this.array = array;
+        }
+    }
+
+    /**
+     * <p>
+     * A mutable vector that changes in place the nodes it created since its last snapshot, and
+     * copies the others before changing them. It is meant to be used by a single thread.
+     * </p>
+     * @param <E> The type of the elements.
+     */
+    public static class Builder<E> {
+        /**
+         * Identifies the nodes this builder may change. Replaced by each snapshot.
+         */
+        private Object owner;
+        private int size;
+        private int shift;
+        private Node root;
+        /**
+         * The tail, always {@link PersistentVector#WIDTH} long.
+         */
+        private Object[] tail;
+
+        private Builder(PersistentVector<E> vector) {
+            owner = new Object();
+            size = vector.size;
+            shift = vector.shift;
+            root = vector.root;
+            tail = Arrays.copyOf(vector.tail, WIDTH);
+        }
+
+        /**
+         * Adds an element at the end.
+         * @param element element to be added.
+         */
+        public void add(E element) {
+            if (size - tailOffset(size) < WIDTH) {
+                tail[size & MASK] = element;
+                ++size;
+                return;
+            }
+            Node tailNode = new Node(owner, tail);
+            tail = new Object[WIDTH];
+            tail[0] = element;
+            if ((size >>> BITS) > (1 << shift)) {
+                Node newRoot = new Node(owner, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(owner, shift, tailNode);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(owner, size, shift, root, tailNode);
+            }
+            ++size;
+        }
+
+        /**
+         * Replaces the element at an index.
+         * @param index index of the element.
+         * @param element the new element.
+         * @throws NoSuchElementException if the index is not within the builder.
+         */
+        public void set(int index, E element) throws NoSuchElementException {
+            if (index < 0 || index >= size) throw new NoSuchElementException();
+            if (index >= tailOffset(size)) tail[index & MASK] = element;
+            else root = assoc(owner, shift, root, index, element);
+        }
+
+        /**
+         * Returns the element at an index.
+         * @param index index of the element.
+         * @return the element at the index.
+         * @throws NoSuchElementException if the index is not within the builder.
+         */
+        @SuppressWarnings({"unchecked"})
+        public E get(int index) throws NoSuchElementException {
+            if (index < 0 || index >= size) throw new NoSuchElementException();
+            if (index >= tailOffset(size)) return (E) tail[index & MASK];
+            return (E) leafFor(root, shift, index)[index & MASK];
+        }
+
+        /**
+         * Returns the number of elements.
+         * @return the size of the builder.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns an immutable vector with the current content, in constant time: the trie is
+         * shared with the vector, and only the tail, at most 32 elements, is copied. The builder
+         * then gives up its ownership of the shared nodes, so its later changes copy them first.
+         * @return a vector with the current content.
+         */
+        public PersistentVector<E> snapshot() {
+            owner = new Object();
+            return new PersistentVector<>(size, shift, root, Arrays.copyOf(tail, size - tailOffset(size)));
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.ccampana.datastructures;
 
+import java.util.Collection;
+
 public interface Queue<E> {
     void enqueue(E e);
 
@@ -12,4 +14,54 @@ public interface Queue<E> {
     boolean isEmpty();
 
     void clear();
+
+    /**
+     * Adds every element of an array at the end of the queue, in order. By default it enqueues them
+     * one by one; implementations override it to make room, or take their lock, once per batch.
+     * If an element cannot be enqueued, the exception is thrown with the elements before it, and
+     * only those, left in the queue; an implementation may check the whole batch first and leave
+     * none of them.
+     * @param elements elements to be enqueued.
+     */
+    default void enqueueAll(E[] elements) {
+        for (E e : elements) enqueue(e);
+    }
+
+    /**
+     * Adds every element of a list at the end of the queue, in order, through
+     * {@link Queue#enqueueAll(Object[])}, which also gives its behaviour on failure. It relies on
+     * {@link List#toArray()} holding exactly the elements of the list, without holes.
+     * @param elements list whose elements are enqueued.
+     */
+    default void enqueueAll(List<? extends E> elements) {
+        enqueueAll(elements.toArray());
+    }
+
+    /**
+     * Removes up to a number of elements from the front of the queue and adds them, in order, to
+     * a collection. It stops early when the queue is empty, so it never throws for that reason.
+     * @param target the collection receiving the elements.
+     * @param maxElements the maximum number of elements to be moved.
+     * @return the number of elements moved.
+     */
+    default int drainTo(Collection<? super E> target, int maxElements) {
+        int count = 0;
+        while (count < maxElements && !isEmpty()) {
+            target.add(dequeue());
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Removes elements from the front of the queue into an array, from position 0, until the array
+     * is full or the queue is empty.
+     * @param out the array receiving the elements.
+     * @return the number of elements removed, the first positions of out filled.
+     */
+    default int dequeueBatch(E[] out) {
+        int count = 0;
+        while (count < out.length && !isEmpty()) out[count++] = dequeue();
+        return count;
+    }
 }
@@ -0,0 +1,295 @@
+package com.ccampana.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * RingBufferQueue is the common part of the lock-free bounded queues {@link SpscArrayQueue},
+ * {@link MpscArrayQueue} and {@link MpmcArrayQueue}. The elements are kept in a ring buffer whose
+ * capacity is a power of two, allocated once, and addressed by two ever increasing counters: the
+ * producer index, the number of elements ever offered, and the consumer index, the number of
+ * elements ever polled. The slot of an index is its low bits, so the counters never wrap around
+ * within the life of the queue.
+ * </p>
+ * <p>
+ * Producers write the producer index and consumers the consumer index, so each counter lives on a
+ * cache line of its own: otherwise every write by one side would invalidate the line the other
+ * side is reading, and both would stall on it. The JVM lays out the fields of a superclass before
+ * those of a subclass, so the counters are separated by classes holding nothing but 128 bytes of
+ * padding, which also covers CPUs that fetch cache lines in pairs.
+ * </p>
+ * <p>
+ * Null elements are not accepted, since a null slot means the slot is free. The subclasses decide
+ * how the slots are claimed and published; this class gives them the counters, the buffer and
+ * the operations of {@link Queue} written in terms of offer and poll.
+ * </p>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @param <E> the generic type.
+ * @see Queue
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+abstract class RingBufferQueue<E> extends RingBufferRightPad implements Queue<E> {
+    /**
+     * Acquire and release access to the slots of the buffer.
+     */
+    static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+    /**
+     * Access to {@link RingBufferProducerIndex#producerIndex}.
+     */
+    static final VarHandle PRODUCER_INDEX;
+    /**
+     * Access to {@link RingBufferConsumerIndex#consumerIndex}.
+     */
+    static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PRODUCER_INDEX = lookup.findVarHandle(RingBufferProducerIndex.class, "producerIndex", long.class);
+            CONSUMER_INDEX = lookup.findVarHandle(RingBufferConsumerIndex.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The ring buffer. Its length is the capacity, a power of two.
+     */
+    final Object[] buffer;
+    /**
+     * Selects the slot of an index, the capacity minus one.
+     */
+    final int mask;
+
+    /**
+     * Constructor that rounds the capacity up to a power of two, and to at least 2.
+     * @param capacity the minimum capacity of the queue.
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30.
+     */
+    RingBufferQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) throw new IllegalArgumentException();
+        int length = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        buffer = new Object[length];
+        mask = length - 1;
+    }
+
+    /**
+     * Adds an element at the end of the queue if there is room, without waiting nor locking.
+     * @param e the element to be enqueued.
+     * @return true if the element was added, false if the queue is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    public abstract boolean offer(E e);
+
+    /**
+     * Retrieves and removes the first element of the queue, if there is one, without waiting nor
+     * locking.
+     * @return The element removed, or null if the queue is empty.
+     */
+    public abstract E poll();
+
+    /**
+     * Adds an element at the end of the queue.
+     * @param e the element to be enqueued.
+     * @throws IllegalArgumentException if the element is null.
+     * @throws IllegalStateException if the queue is full.
+     */
+    @Override
+    public void enqueue(E e) throws IllegalStateException {
+        if (!offer(e)) throw new IllegalStateException();
+    }
+
+    /**
+     * Adds the elements of an array at the end of the queue, in order, while there is room,
+     * without waiting nor locking. With several producers, the elements of other batches may be
+     * interleaved with them.
+     * @param elements elements to be enqueued.
+     * @return the number of elements added, the first ones of the array.
+     * @throws IllegalArgumentException if an element is null.
+     */
+    public int offerAll(E[] elements) {
+        int count = 0;
+        while (count < elements.length && offer(elements[count])) ++count;
+        return count;
+    }
+
+    /**
+     * Adds every element of an array at the end of the queue, in order. If the queue fills up,
+     * the elements already added stay in the queue; {@link RingBufferQueue#offerAll(Object[])}
+     * tells how many fit instead of throwing.
+     * @param elements elements to be enqueued.
+     * @throws IllegalArgumentException if an element is null.
+     * @throws IllegalStateException if the queue is full before the last element is added.
+     */
+    @Override
+    public void enqueueAll(E[] elements) throws IllegalStateException {
+        if (offerAll(elements) < elements.length) throw new IllegalStateException();
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue.
+     * @return The element removed.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    public E dequeue() throws NoSuchElementException {
+        E element = poll();
+        if (element == null) throw new NoSuchElementException();
+        return element;
+    }
+
+    /**
+     * Removes elements from the front of the queue into an array, from position 0, until the array
+     * is full or the queue is empty. It polls element by element, since with several consumers the
+     * queue may empty between a check and a dequeue.
+     * @param out the array receiving the elements.
+     * @return the number of elements removed.
+     */
+    @Override
+    public int dequeueBatch(E[] out) {
+        int count = 0;
+        E element;
+        while (count < out.length && (element = poll()) != null) out[count++] = element;
+        return count;
+    }
+
+    /**
+     * Moves up to a number of elements from the front of the queue, in order, into a collection,
+     * polling element by element.
+     * @param target the collection receiving the elements.
+     * @param maxElements the maximum number of elements to be moved.
+     * @return the number of elements moved.
+     */
+    @Override
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        int count = 0;
+        E element;
+        while (count < maxElements && (element = poll()) != null) {
+            target.add(element);
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves but does not remove the first element of the queue. With several consumers, the
+     * element may be gone by the time it is returned.
+     * @return The first element.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E peek() throws NoSuchElementException {
+        while (true) {
+            long index = (long) CONSUMER_INDEX.getVolatile(this);
+            Object element = SLOT.getAcquire(buffer, (int) index & mask);
+            if (element != null) {
+                // the slot may already hold an element of the next lap if the index moved on
+                if ((long) CONSUMER_INDEX.getVolatile(this) == index) return (E) element;
+            } else if (index == (long) PRODUCER_INDEX.getVolatile(this)) {
+                throw new NoSuchElementException();
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the number of elements. While other threads offer or poll it is only an estimate,
+     * taken from a consistent pair of counters.
+     * @return the size of the queue.
+     */
+    @Override
+    public int size() {
+        long after = (long) CONSUMER_INDEX.getVolatile(this);
+        while (true) {
+            long before = after;
+            long producer = (long) PRODUCER_INDEX.getVolatile(this);
+            after = (long) CONSUMER_INDEX.getVolatile(this);
+            if (before == after) return (int) Math.max(0, Math.min(producer - after, buffer.length));
+        }
+    }
+
+    /**
+     * In case size is equal to 0, returns true. Otherwise, returns false.
+     * @return a boolean indicating whether the queue is empty or not.
+     */
+    @Override
+    public boolean isEmpty() {
+        return (long) CONSUMER_INDEX.getVolatile(this) == (long) PRODUCER_INDEX.getVolatile(this);
+    }
+
+    /**
+     * Returns the capacity of the queue, the requested one rounded up to a power of two.
+     * @return the number of elements the queue holds when full.
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Removes every element by polling them. It is a consumer operation: with a single consumer,
+     * it must be called by the consumer thread.
+     */
+    @Override
+    public void clear() {
+        while (poll() != null) ;
+    }
+}
+
+/**
+ * Padding ahead of the producer index, keeping it apart from the object header and from whatever
+ * the JVM allocated before the queue.
+ */
+abstract class RingBufferLeftPad {
+    long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ * Holds the producer side of a {@link RingBufferQueue}.
+ */
+abstract class RingBufferProducerIndex extends RingBufferLeftPad {
+    /**
+     * Number of elements ever offered. Accessed through {@link RingBufferQueue#PRODUCER_INDEX}.
+     */
+    volatile long producerIndex;
+    /**
+     * A consumer index plus the capacity, seen by a producer at some point: the producer index may
+     * run up to it without reading the consumer index again. Written by producers only, so it
+     * shares their line.
+     */
+    volatile long producerLimit;
+}
+
+/**
+ * Padding between the producer and the consumer indices.
+ */
+abstract class RingBufferMiddlePad extends RingBufferProducerIndex {
+    long p16, p17, p18, p19, p20, p21, p22, p23, p24, p25, p26, p27, p28, p29, p30, p31;
+}
+
+/**
+ * Holds the consumer side of a {@link RingBufferQueue}.
+ */
+abstract class RingBufferConsumerIndex extends RingBufferMiddlePad {
+    /**
+     * Number of elements ever polled. Accessed through {@link RingBufferQueue#CONSUMER_INDEX}.
+     */
+    volatile long consumerIndex;
+}
+
+/**
+ * Padding after the consumer index, keeping it apart from the read-only fields of the queue and
+ * from whatever the JVM allocates next.
+ */
+abstract class RingBufferRightPad extends RingBufferConsumerIndex {
+    long p32, p33, p34, p35, p36, p37, p38, p39, p40, p41, p42, p43, p44, p45, p46, p47;
+}
@@ -0,0 +1,28 @@
+package com.ccampana.datastructures;
+
+/**
+ * Decides whether the primitive lists use {@link VectorKernels}. The kernels need the incubating
+ * module jdk.incubator.vector, which the JVM only loads when started with
+ * {@code --add-modules jdk.incubator.vector}; without it, or on hardware without vector
+ * registers, or when the system property {@code com.ccampana.datastructures.simd} is false, the
+ * lists keep their scalar loops. This class never refers to the module itself, so it loads on any
+ * JVM.
+ */
+final class Simd {
+    /**
+     * Whether the vector kernels are available and worth using.
+     */
+    static final boolean ENABLED = detect();
+
+    private Simd() {
+    }
+
+    private static boolean detect() {
+        if (!Boolean.parseBoolean(System.getProperty("com.ccampana.datastructures.simd", "true"))) return false;
+        try {
+            return VectorKernels.supported();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
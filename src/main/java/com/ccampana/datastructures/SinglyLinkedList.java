@@ -1,6 +1,9 @@
 package com.ccampana.datastructures;
 
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 /**
  * This class is an implementation of a generic singly linked list.
@@ -10,6 +13,13 @@ import java.util.NoSuchElementException;
  * Only the essential features are represented here.
  * It implements the interface {@Link main.java.com.ccampana.datastructures.List}.
  * <p>
+ * The list keeps a reference to its last node (Tail), so adding an element takes constant time.
+ * <p>
+ * A list created with {@link SinglyLinkedList#SinglyLinkedList(int)} is unrolled: each node holds
+ * an array of up to the given number of elements, so that a single node is allocated for many
+ * elements and walking the list reads mostly consecutive memory. Removing an element shifts the
+ * following elements of its node, and a node is merged with the next one whenever both fit in one.
+ * <p>
  * This project is licensed under GNU General Public License v3.0.
  * <p>
  * Created by Caike Salles Campana - csallesc@ucsd.edu
@@ -20,34 +30,60 @@ import java.util.NoSuchElementException;
  */
 public class SinglyLinkedList<E> implements List<E> {
     private final static int NOT_FOUND = -1;
+    /**
+     * Growth of the batches copied by each split of the spliterator.
+     */
+    private final static int BATCH_UNIT = 1 << 10;
+    /**
+     * Largest batch copied by a split of the spliterator.
+     */
+    private final static int MAX_BATCH = 1 << 25;
     private Node head;
+    private Node tail;
     private int size;
+    /**
+     * Number of elements held by each node; 1 for a classic list.
+     */
+    private final int nodeCapacity;
 
     /**
      * The default constructor, it initializes the head node.
      */
     public SinglyLinkedList() {
+        this(1);
+    }
+
+    /**
+     * Constructor that chooses how many elements each node holds. With a capacity greater than 1,
+     * the list is unrolled.
+     *
+     * @param nodeCapacity the number of elements of each node.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public SinglyLinkedList(int nodeCapacity) {
+        if (nodeCapacity < 1) throw new IllegalArgumentException();
+        this.nodeCapacity = nodeCapacity;
         head = null;
+        tail = null;
     }
 
     /**
-     * Adds a value to the singly linked list. It checks to see if the head node still null. In case
-     * the head is not null,it finds the tail of the list, and add the new node there.
+     * Adds a value to the singly linked list, after the tail node. In an unrolled list, a new
+     * node is only created when the tail node is full.
      *
      * @param e element to be added to the list.
      */
     @Override
     public void add(E e) {
         ++size;
-        if (head == null) {
-            head = new Node(e, null);
+        if (nodeCapacity > 1 && tail != null && tail.count() < nodeCapacity) {
+            ((UnrolledNode) tail).append(e);
             return;
         }
-        Node iterate = head;
-        while (iterate.next != null) {
-            iterate = iterate.next;
-        }
-        iterate.next = new Node(e, null);
+        Node node = nodeCapacity > 1 ? new UnrolledNode(nodeCapacity, e) : new Node(e, null);
+        if (head == null) head = node;
+        else tail.next = node;
+        tail = node;
     }
 
     /**
@@ -60,16 +96,30 @@ public class SinglyLinkedList<E> implements List<E> {
     @Override
     public void remove(E e) throws NoSuchElementException {
         Node iterate = head, prev = null;
+        int position = NOT_FOUND;
 
-        while (iterate != null && !iterate.value.equals(e)) {
+        while (iterate != null && (position = iterate.find(e)) == NOT_FOUND) {
             prev = iterate;
             iterate = iterate.next;
         }
 
         if (iterate == null) throw new NoSuchElementException();
 
-        prev.next = iterate.next;
         --size;
+        if (iterate instanceof UnrolledNode) {
+            UnrolledNode node = (UnrolledNode) iterate;
+            node.removeAt(position);
+            if (node.count > 0) {
+                if (node.next != null && node.count + node.next.count() <= nodeCapacity) {
+                    if (node.next == tail) tail = node;
+                    node.absorbNext();
+                }
+                return;
+            }
+        }
+        if (prev == null) head = iterate.next;
+        else prev.next = iterate.next;
+        if (iterate == tail) tail = prev;
     }
 
 
@@ -85,12 +135,13 @@ public class SinglyLinkedList<E> implements List<E> {
      */
     @Override
     public E get(int index) throws NoSuchElementException {
-        if (index > size) throw new NoSuchElementException();
+        if (index < 0 || index >= size) throw new NoSuchElementException();
         Node temp = head;
-        for (int i = 0; i < index; i++) {
+        while (index >= temp.count()) {
+            index -= temp.count();
             temp = temp.next;
         }
-        return temp.value;
+        return temp.element(index);
     }
 
 
@@ -100,6 +151,7 @@ public class SinglyLinkedList<E> implements List<E> {
     @Override
     public void clear() {
         head = null;
+        tail = null;
         size = 0;
     }
 
@@ -112,21 +164,13 @@ public class SinglyLinkedList<E> implements List<E> {
      */
     @Override
     public int indexOf(E e) {
-        Node temp = head;
         int index = 0;
-        boolean found = false;
-        while (head != null) {
-            if (head.value.equals(e)) {
-
-                found = true;
-                break;
-            }
-            head = head.next;
-            index++;
-
+        for (Node temp = head; temp != null; temp = temp.next) {
+            int position = temp.find(e);
+            if (position != NOT_FOUND) return index + position;
+            index += temp.count();
         }
-        if (!found) return NOT_FOUND;
-        return index;
+        return NOT_FOUND;
     }
 
     /**
@@ -139,10 +183,9 @@ public class SinglyLinkedList<E> implements List<E> {
     @SuppressWarnings({"unchecked"})
     public E[] toArray() {
         E[] array = (E[]) new Object[size];
-        Node iterate = head;
-        for (int i = 0; i < size; i++) {
-            array[i] = iterate.value;
-            iterate = iterate.next;
+        int index = 0;
+        for (Node iterate = head; iterate != null; iterate = iterate.next) {
+            for (int i = 0; i < iterate.count(); i++) array[index++] = iterate.element(i);
         }
         return array;
     }
@@ -179,18 +222,93 @@ public class SinglyLinkedList<E> implements List<E> {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        Node iterate = head;
-        while (iterate != null) {
-            sb.append(iterate.value);
-            iterate = iterate.next;
+        for (Node iterate = head; iterate != null; iterate = iterate.next) {
+            for (int i = 0; i < iterate.count(); i++) sb.append(iterate.element(i));
         }
         return sb.toString();
     }
 
 
     /**
-     * This is an inner class that defines the node of the linked list. It contains only
-     * the constructor which assigns the value and the reference to the next node fields.
+     * Returns a spliterator that walks the nodes. Since a linked list cannot be split in the
+     * middle without walking to it, each split copies the next batch of elements into an array,
+     * with batches growing by {@link SinglyLinkedList#BATCH_UNIT} elements at each split, so that
+     * other threads work on the arrays while this one keeps walking.
+     * The list must not be modified while it is used.
+     *
+     * @return a spliterator over the elements.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new NodeSpliterator(head, size);
+    }
+
+    /**
+     * Spliterator over the nodes following a given node, splitting off array batches.
+     */
+    class NodeSpliterator implements Spliterator<E> {
+        private Node current;
+        /**
+         * Position of the next element within the current node.
+         */
+        private int offset;
+        private int remaining;
+        private int batch;
+
+        NodeSpliterator(Node current, int remaining) {
+            this.current = current;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (remaining == 0) return false;
+            action.accept(next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            for (; remaining > 0; ) action.accept(next());
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            if (remaining <= 1) return null;
+            batch = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), remaining);
+            Object[] values = new Object[batch];
+            for (int i = 0; i < batch; i++) values[i] = next();
+            return Spliterators.spliterator(values, Spliterator.ORDERED);
+        }
+
+        /**
+         * Returns the next element, moving to the next node at the end of the current one.
+         */
+        private E next() {
+            E value = current.element(offset++);
+            if (offset == current.count()) {
+                current = current.next;
+                offset = 0;
+            }
+            --remaining;
+            return value;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * This is an inner class that defines the node of the linked list. It holds a single value
+     * and the reference to the next node, and gives access to its elements by position so that
+     * classic and unrolled nodes are walked the same way.
      */
     class Node {
         Node next;
@@ -207,5 +325,82 @@ public class SinglyLinkedList<E> implements List<E> {
             this.next = next;
             this.value = value;
         }
+
+        /**
+         * The number of elements held by the node.
+         */
+        int count() {
+            return 1;
+        }
+
+        /**
+         * Returns an element of the node.
+         */
+        E element(int position) {
+            return value;
+        }
+
+        /**
+         * Returns the position of an element within the node, or NOT_FOUND.
+         */
+        int find(E e) {
+            return e != null && e.equals(value) ? 0 : NOT_FOUND;
+        }
+    }
+
+    /**
+     * A node of an unrolled list, holding an array of elements.
+     */
+    class UnrolledNode extends Node {
+        final Object[] values;
+        int count;
+
+        UnrolledNode(int capacity, E first) {
+            super(null, null);
+            values = new Object[capacity];
+            values[0] = first;
+            count = 1;
+        }
+
+        void append(E e) {
+            values[count++] = e;
+        }
+
+        /**
+         * Removes an element, shifting the following ones back.
+         */
+        void removeAt(int position) {
+            System.arraycopy(values, position + 1, values, position, count - position - 1);
+            values[--count] = null;
+        }
+
+        /**
+         * Moves every element of the next node into this one and unlinks it.
+         */
+        void absorbNext() {
+            Node other = next;
+            for (int i = 0; i < other.count(); i++) values[count++] = other.element(i);
+            next = other.next;
+        }
+
+        @Override
+        int count() {
+            return count;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked"})
+        E element(int position) {
+            return (E) values[position];
+        }
+
+        @Override
+        int find(E e) {
+            if (e == null) return NOT_FOUND;
+            for (int i = 0; i < count; i++) {
+                if (e.equals(values[i])) return i;
+            }
+            return NOT_FOUND;
+        }
     }
 }
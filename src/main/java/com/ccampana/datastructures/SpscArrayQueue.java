@@ -0,0 +1,88 @@
+package com.ccampana.datastructures;
+
+/**
+ * <p>
+ * SpscArrayQueue is a lock-free bounded queue for a single producer thread handing elements to a
+ * single consumer thread, for instance between two stages of a pipeline. It is a
+ * {@link RingBufferQueue}: a ring buffer allocated once, with padded producer and consumer indices,
+ * so a hand-off allocates nothing.
+ * </p>
+ * <p>
+ * Since each index has a single writer, neither side needs an atomic read-modify-write. The state
+ * of a slot tells whether it may be used: the producer writes into a slot only once it reads null
+ * there, and the consumer takes from a slot only once it reads an element, so in the common case
+ * neither side reads the index of the other and their cache lines are never shared. An element is
+ * published with a release write of its slot, which the consumer pairs with an acquire read.
+ * </p>
+ * <p>
+ * Calling offer from two threads at once, or poll from two threads at once, corrupts the queue;
+ * use {@link MpscArrayQueue} or {@link MpmcArrayQueue} then.
+ * </p>
+ * <ul>
+ * Supported operations:
+ * <li>{@link SpscArrayQueue#offer(E e)} - adds an element if there is room.</li>
+ * <li>{@link RingBufferQueue#offerAll(E[] elements)} - adds the elements of an array while there
+ * is room, returning how many were added.</li>
+ * <li>{@link SpscArrayQueue#poll()} - removes the first element, if there is one.</li>
+ * <li>{@link RingBufferQueue#enqueue(E e)}, {@link RingBufferQueue#dequeue()},
+ * {@link RingBufferQueue#peek()} - the operations of {@link Queue}, throwing when they cannot
+ * proceed.</li>
+ * <li>{@link RingBufferQueue#size()} - Returns the number of elements.</li>
+ * <li>{@link RingBufferQueue#capacity()} - Returns the capacity, a power of two.</li>
+ * </ul>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @param <E> the generic type.
+ * @see RingBufferQueue
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+public class SpscArrayQueue<E> extends RingBufferQueue<E> {
+    /**
+     * Constructor that allocates the ring buffer.
+     * @param capacity the minimum capacity, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^30.
+     */
+    public SpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Adds an element at the end of the queue if there is room. Must only be called by the
+     * producer thread.
+     * @param e the element to be enqueued.
+     * @return true if the element was added, false if the queue is full.
+     * @throws IllegalArgumentException if the element is null.
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) throw new IllegalArgumentException();
+        long index = (long) PRODUCER_INDEX.getOpaque(this);
+        int slot = (int) index & mask;
+        if (SLOT.getAcquire(buffer, slot) != null) return false;
+        SLOT.setRelease(buffer, slot, e);
+        PRODUCER_INDEX.setRelease(this, index + 1);
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the first element of the queue, if there is one. Must only be called
+     * by the consumer thread.
+     * @return The element removed, or null if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public E poll() {
+        long index = (long) CONSUMER_INDEX.getOpaque(this);
+        int slot = (int) index & mask;
+        Object element = SLOT.getAcquire(buffer, slot);
+        if (element == null) return null;
+        SLOT.setRelease(buffer, slot, null);
+        CONSUMER_INDEX.setRelease(this, index + 1);
+        return (E) element;
+    }
+}
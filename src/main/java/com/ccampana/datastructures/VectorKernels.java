@@ -0,0 +1,248 @@
+package com.ccampana.datastructures;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * Searches and reductions over the first elements of primitive arrays, written with the Vector
+ * API so that each step processes a whole vector register of elements: 8 ints per step with AVX2,
+ * 16 with AVX-512. The elements left after the last full vector are processed one at a time.
+ * </p>
+ * <p>
+ * Only used through {@link Simd#ENABLED}, since loading this class fails when the module
+ * jdk.incubator.vector is not available.
+ * </p>
+ * <p>
+ * This project is licensed under Creative Commons Attribution 4.0 International License.
+ * </p>
+ * <p>
+ * Created by <b>Caike Salles Campana - csallesc@ucsd.edu</b>
+ * </p>
+ * @see IntArrayList
+ * @see LongArrayList
+ * @see DoubleArrayList
+ * @author Caike Salles Campana
+ * @version 0.1
+ */
+final class VectorKernels {
+    final static VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    final static VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    final static VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    /**
+     * Used to denote an element that is not present in the array.
+     */
+    final static int NOT_FOUND = -1;
+
+    private VectorKernels() {
+    }
+
+    /**
+     * Whether the hardware has vector registers holding at least two longs, below which the
+     * Vector API only emulates them.
+     */
+    static boolean supported() {
+        return LONGS.length() >= 2;
+    }
+
+    static int indexOf(int[] array, int size, int key) {
+        int i = 0;
+        for (int bound = INTS.loopBound(size); i < bound; i += INTS.length()) {
+            VectorMask<Integer> found = IntVector.fromArray(INTS, array, i).eq(key);
+            if (found.anyTrue()) return i + found.firstTrue();
+        }
+        for (; i < size; i++) {
+            if (array[i] == key) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    static int count(int[] array, int size, int key) {
+        int count = 0;
+        int i = 0;
+        for (int bound = INTS.loopBound(size); i < bound; i += INTS.length()) {
+            count += IntVector.fromArray(INTS, array, i).eq(key).trueCount();
+        }
+        for (; i < size; i++) {
+            if (array[i] == key) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds ints into long lanes, so that the sum does not overflow.
+     */
+    static long sum(int[] array, int size) {
+        LongVector low = LongVector.zero(LONGS);
+        LongVector high = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = INTS.loopBound(size); i < bound; i += INTS.length()) {
+            IntVector values = IntVector.fromArray(INTS, array, i);
+            low = low.add((LongVector) values.convertShape(VectorOperators.I2L, LONGS, 0));
+            high = high.add((LongVector) values.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        long sum = low.add(high).reduceLanes(VectorOperators.ADD);
+        for (; i < size; i++) sum += array[i];
+        return sum;
+    }
+
+    static int min(int[] array, int size) {
+        IntVector min = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = 0;
+        for (int bound = INTS.loopBound(size); i < bound; i += INTS.length()) {
+            min = min.min(IntVector.fromArray(INTS, array, i));
+        }
+        int result = min.reduceLanes(VectorOperators.MIN);
+        for (; i < size; i++) result = Math.min(result, array[i]);
+        return result;
+    }
+
+    static int max(int[] array, int size) {
+        IntVector max = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = 0;
+        for (int bound = INTS.loopBound(size); i < bound; i += INTS.length()) {
+            max = max.max(IntVector.fromArray(INTS, array, i));
+        }
+        int result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < size; i++) result = Math.max(result, array[i]);
+        return result;
+    }
+
+    static int indexOf(long[] array, int size, long key) {
+        int i = 0;
+        for (int bound = LONGS.loopBound(size); i < bound; i += LONGS.length()) {
+            VectorMask<Long> found = LongVector.fromArray(LONGS, array, i).eq(key);
+            if (found.anyTrue()) return i + found.firstTrue();
+        }
+        for (; i < size; i++) {
+            if (array[i] == key) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    static int count(long[] array, int size, long key) {
+        int count = 0;
+        int i = 0;
+        for (int bound = LONGS.loopBound(size); i < bound; i += LONGS.length()) {
+            count += LongVector.fromArray(LONGS, array, i).eq(key).trueCount();
+        }
+        for (; i < size; i++) {
+            if (array[i] == key) count++;
+        }
+        return count;
+    }
+
+    static long sum(long[] array, int size) {
+        LongVector sum = LongVector.zero(LONGS);
+        int i = 0;
+        for (int bound = LONGS.loopBound(size); i < bound; i += LONGS.length()) {
+            sum = sum.add(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < size; i++) result += array[i];
+        return result;
+    }
+
+    static long min(long[] array, int size) {
+        LongVector min = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        int i = 0;
+        for (int bound = LONGS.loopBound(size); i < bound; i += LONGS.length()) {
+            min = min.min(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = min.reduceLanes(VectorOperators.MIN);
+        for (; i < size; i++) result = Math.min(result, array[i]);
+        return result;
+    }
+
+    static long max(long[] array, int size) {
+        LongVector max = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int i = 0;
+        for (int bound = LONGS.loopBound(size); i < bound; i += LONGS.length()) {
+            max = max.max(LongVector.fromArray(LONGS, array, i));
+        }
+        long result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < size; i++) result = Math.max(result, array[i]);
+        return result;
+    }
+
+    /**
+     * Finds a double as by {@link Double#compare(double, double)}, comparing the bits of the
+     * values, so that 0.0 and -0.0 differ. NaN keys are left to the caller, since NaN has many
+     * bit patterns.
+     */
+    static int indexOf(double[] array, int size, double key) {
+        long bits = Double.doubleToRawLongBits(key);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(size); i < bound; i += DOUBLES.length()) {
+            VectorMask<Long> found = DoubleVector.fromArray(DOUBLES, array, i).reinterpretAsLongs().eq(bits);
+            if (found.anyTrue()) return i + found.firstTrue();
+        }
+        for (; i < size; i++) {
+            if (Double.doubleToRawLongBits(array[i]) == bits) return i;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Counts a double compared as in {@link VectorKernels#indexOf(double[], int, double)}.
+     */
+    static int count(double[] array, int size, double key) {
+        long bits = Double.doubleToRawLongBits(key);
+        int count = 0;
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(size); i < bound; i += DOUBLES.length()) {
+            count += DoubleVector.fromArray(DOUBLES, array, i).reinterpretAsLongs().eq(bits).trueCount();
+        }
+        for (; i < size; i++) {
+            if (Double.doubleToRawLongBits(array[i]) == bits) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Adds doubles in one partial sum per lane. The additions happen in a different order than in
+     * a scalar loop, so the rounding of the result may differ slightly.
+     */
+    static double sum(double[] array, int size) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(size); i < bound; i += DOUBLES.length()) {
+            sum = sum.add(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < size; i++) result += array[i];
+        return result;
+    }
+
+    /**
+     * The smallest double, with the semantics of {@link Math#min(double, double)}.
+     */
+    static double min(double[] array, int size) {
+        DoubleVector min = DoubleVector.broadcast(DOUBLES, Double.POSITIVE_INFINITY);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(size); i < bound; i += DOUBLES.length()) {
+            min = min.min(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = min.reduceLanes(VectorOperators.MIN);
+        for (; i < size; i++) result = Math.min(result, array[i]);
+        return result;
+    }
+
+    /**
+     * The largest double, with the semantics of {@link Math#max(double, double)}.
+     */
+    static double max(double[] array, int size) {
+        DoubleVector max = DoubleVector.broadcast(DOUBLES, Double.NEGATIVE_INFINITY);
+        int i = 0;
+        for (int bound = DOUBLES.loopBound(size); i < bound; i += DOUBLES.length()) {
+            max = max.max(DoubleVector.fromArray(DOUBLES, array, i));
+        }
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (; i < size; i++) result = Math.max(result, array[i]);
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ccampana.datastructures;
+
+/**
+ * Gives the weight of a key-value pair, used by {@link BoundedCache} to bound its contents by
+ * weight rather than by number of pairs.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public interface Weigher<K, V> {
+    /**
+     * Returns the weight of a key-value pair.
+     * @param key the key.
+     * @param value the value associated with the key.
+     * @return a weight, zero or greater.
+     */
+    int weigh(K key, V value);
+}
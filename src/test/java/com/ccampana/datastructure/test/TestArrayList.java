@@ -0,0 +1,165 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.ArrayList;
+import com.ccampana.datastructures.BigArrayList;
+import com.ccampana.datastructures.GrowthPolicy;
+import com.ccampana.datastructures.SinglyLinkedList;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestArrayList {
+    @Test
+    public void testCompactingRemove(){
+        ArrayList<Integer> test = new ArrayList<>(true);
+        for (int i = 0; i < 20; i++) test.add(i);
+        test.remove(5);
+        assertEquals(Integer.valueOf(6), test.get(5));
+        assertEquals(Integer.valueOf(0), test.removeAt(0));
+        assertEquals(Integer.valueOf(19), test.removeLast());
+        test.add(0, 100);
+        assertEquals(Integer.valueOf(100), test.get(0));
+        assertEquals(Integer.valueOf(1), test.get(1));
+        assertEquals(18, test.size());
+        int count = 0;
+        for (Integer element : test) count++;
+        assertEquals(18, count);
+    }
+
+    @Test
+    public void testRemoveIfAndTrim(){
+        ArrayList<Integer> test = new ArrayList<>();
+        for (int i = 0; i < 30; i++) test.add(i);
+        test.remove(3);
+        assertEquals(15, test.removeIf(element -> element % 2 == 0));
+        assertEquals(14, test.size());
+        assertEquals(Integer.valueOf(1), test.get(0));
+        assertEquals(Integer.valueOf(5), test.get(1));
+        test.trimToSize();
+        assertEquals(14, test.length());
+        test.add(99);
+        assertEquals(Integer.valueOf(99), test.get(14));
+        assertEquals(Integer.valueOf(99), test.removeLast());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveLastEmpty(){
+        new ArrayList<Integer>(true).removeLast();
+    }
+
+    @Test
+    public void testParallelSortAndSearch(){
+        ArrayList<Integer> test = new ArrayList<>();
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 100000; i++) test.add(random.nextInt(50000));
+        test.remove(test.get(7));
+        test.sort(Integer::compare);
+        assertTrue(test.isSorted());
+        for (int i = 1; i < test.size(); i++) assertTrue(test.get(i - 1) <= test.get(i));
+        int index = test.indexOf(test.get(500));
+        assertEquals(test.get(500), test.get(index));
+        assertTrue(index == 0 || test.get(index - 1) < test.get(index));
+        assertTrue(test.binarySearch(-1) < 0);
+        assertEquals(-1, test.indexOf(50001));
+        test.add(-3);
+        assertFalse(test.isSorted());
+    }
+
+    @Test
+    public void testStreams(){
+        ArrayList<Integer> compacting = new ArrayList<>(true);
+        ArrayList<Integer> holey = new ArrayList<>();
+        SinglyLinkedList<Integer> linked = new SinglyLinkedList<>();
+        for (int i = 0; i < 20000; i++) {
+            compacting.add(i);
+            holey.add(i);
+            linked.add(i);
+        }
+        holey.remove(3);
+        long expected = 19999L * 20000 / 2;
+        assertEquals(expected, compacting.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(expected - 3, holey.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(expected, linked.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(10000, linked.stream().filter(value -> value % 2 == 0).count());
+        assertEquals(Integer.valueOf(0), compacting.stream().findFirst().get());
+    }
+
+    @Test
+    public void testBigArrayList(){
+        BigArrayList<Long> test = new BigArrayList<>(64);
+        for (long i = 0; i < 1000; i++) test.add(i);
+        assertEquals(1000, test.size());
+        assertEquals(Long.valueOf(999), test.get(999));
+        assertEquals(700, test.indexOf(700L));
+        test.set(70, -1L);
+        assertEquals(Long.valueOf(-1), test.get(70));
+        for (int i = 0; i < 40; i++) test.removeLast();
+        assertEquals(960, test.size());
+        long expected = 959L * 960 / 2 - 71;
+        assertEquals(expected, test.parallelStream().mapToLong(Long::longValue).sum());
+        long sum = 0;
+        for (Long value : test) sum += value;
+        assertEquals(expected, sum);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testBigArrayListOutOfRange(){
+        new BigArrayList<Integer>().get(0);
+    }
+
+    @Test
+    public void testAddAllFromListWithHoles(){
+        ArrayList<Integer> holey = new ArrayList<>(new Integer[]{1, 2, 3});
+        holey.removeAt(0);
+        assertArrayEquals(new Integer[]{2, 3}, holey.toArray());
+        ArrayList<Integer> test = new ArrayList<>(true);
+        test.addAll(holey);
+        assertEquals(2, test.size());
+        assertEquals(Integer.valueOf(2), test.get(0));
+        assertEquals(Integer.valueOf(3), test.get(1));
+    }
+
+    @Test
+    public void testGrowthPolicyAndAddAll(){
+        ArrayList<Integer> test = new ArrayList<>(0, GrowthPolicy.increment(4), true);
+        test.add(1);
+        assertEquals(4, test.length());
+        test.ensureCapacity(100);
+        assertEquals(100, test.length());
+        test.addAll(new Integer[]{2, 3, 4});
+        ArrayList<Integer> other = new ArrayList<>(true);
+        other.addAll(test);
+        other.addAll(new ArrayList<>(new Integer[]{5, 6}));
+        assertEquals(6, other.size());
+        assertEquals(Integer.valueOf(6), other.get(5));
+        ArrayList<Integer> single = new ArrayList<>(1, GrowthPolicy.factor(1.5));
+        single.add(1);
+        single.add(2);
+        assertEquals(Integer.valueOf(2), single.get(1));
+    }
+
+    @Test
+    public void testLinkedLists(){
+        SinglyLinkedList<Integer> classic = new SinglyLinkedList<>();
+        SinglyLinkedList<Integer> unrolled = new SinglyLinkedList<>(16);
+        for (int i = 0; i < 1000; i++) {
+            classic.add(i);
+            unrolled.add(i);
+        }
+        for (SinglyLinkedList<Integer> test : java.util.Arrays.asList(classic, unrolled)) {
+            test.remove(0);
+            for (int i = 1; i < 500; i += 2) test.remove(i);
+            test.remove(999);
+            test.add(1000);
+            assertEquals(749, test.size());
+            assertEquals(Integer.valueOf(2), test.get(0));
+            assertEquals(Integer.valueOf(1000), test.get(748));
+            assertEquals(2, test.indexOf(6));
+            assertEquals(2, test.indexOf(6));
+            assertEquals(-1, test.indexOf(3));
+            assertEquals(749, test.stream().count());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.BoundedCache;
+import com.ccampana.datastructures.BoundedCache.EvictionPolicy;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestBoundedCache {
+    @Test
+    public void testLruEviction(){
+        BoundedCache<Integer, Integer> test = new BoundedCache<>(key -> key, 3, EvictionPolicy.LRU);
+        test.put(1, 1);
+        test.put(2, 2);
+        test.put(3, 3);
+        assertEquals(Integer.valueOf(1), test.get(1));
+        test.put(4, 4);
+        assertEquals(3, test.size());
+        assertNull(test.getIfPresent(2));
+        assertEquals(Integer.valueOf(1), test.getIfPresent(1));
+        assertEquals(1, test.evictionCount());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testGetMissing(){
+        BoundedCache<Integer, Integer> test = new BoundedCache<>(key -> key, 3, EvictionPolicy.W_TINY_LFU);
+        test.get(3);
+    }
+
+    @Test
+    public void testWeigher(){
+        BoundedCache<Integer, String> test = new BoundedCache<>(key -> key, 10, (key, value) -> value.length(),
+                EvictionPolicy.LRU);
+        test.put(1, "aaaa");
+        test.put(2, "bbbb");
+        test.put(3, "cccc");
+        assertEquals(2, test.size());
+        assertEquals(8, test.weightedSize());
+        test.put(4, "elevenchars");
+        assertNull(test.getIfPresent(4));
+        assertTrue(test.weightedSize() <= 10);
+    }
+
+    @Test
+    public void testLoader(){
+        BoundedCache<Integer, Integer> test = new BoundedCache<>(key -> key, 100, EvictionPolicy.W_TINY_LFU);
+        assertEquals(Integer.valueOf(10), test.get(5, key -> key * 2));
+        assertEquals(Integer.valueOf(10), test.get(5, key -> -1));
+        assertEquals(1, test.hitCount());
+        assertEquals(1, test.missCount());
+        test.remove(5);
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentKeys(){
+        BoundedCache<Integer, Integer> tinyLfu = new BoundedCache<>(key -> key, 100, EvictionPolicy.W_TINY_LFU);
+        BoundedCache<Integer, Integer> lru = new BoundedCache<>(key -> key, 100, EvictionPolicy.LRU);
+        for (int round = 0; round < 50; round++) {
+            for (int hot = 0; hot < 50; hot++) {
+                tinyLfu.get(hot, key -> key);
+                lru.get(hot, key -> key);
+            }
+            for (int scan = 0; scan < 200; scan++) {
+                int key = 1000 + round * 200 + scan;
+                tinyLfu.get(key, k -> k);
+                lru.get(key, k -> k);
+            }
+        }
+        assertTrue(tinyLfu.size() <= 100);
+        assertTrue(tinyLfu.hitRate() > lru.hitRate());
+    }
+
+    @Test
+    public void testTinyLfuAdaptsWhenWeighted(){
+        BoundedCache<Integer, Integer> test = new BoundedCache<>(key -> key, 100L << 20, (key, value) -> 1 << 20,
+                EvictionPolicy.W_TINY_LFU);
+        for (int round = 0; round < 100; round++) {
+            for (int hot = 0; hot < 100; hot++) test.get(hot, key -> key);
+        }
+        for (int round = 0; round < 100; round++) {
+            for (int hot = 0; hot < 50; hot++) test.get(1000 + hot, key -> key);
+        }
+        int kept = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (test.getIfPresent(1000 + hot) != null) kept++;
+        }
+        assertTrue(kept > 40);
+    }
+}
@@ -0,0 +1,72 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.ColumnarList;
+import com.ccampana.datastructures.IntArrayList;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarList {
+    static class Trade {
+        final int id;
+        final long time;
+        final double price;
+        final String symbol;
+
+        Trade(int id, long time, double price, String symbol) {
+            this.id = id;
+            this.time = time;
+            this.price = price;
+            this.symbol = symbol;
+        }
+    }
+
+    private static ColumnarList<Trade> trades() {
+        ColumnarList.Schema<Trade> schema = new ColumnarList.Schema<Trade>(row -> new Trade(row.getInt("id"),
+                row.getLong("time"), row.getDouble("price"), row.get("symbol")))
+                .intColumn("id", trade -> trade.id)
+                .longColumn("time", trade -> trade.time)
+                .doubleColumn("price", trade -> trade.price)
+                .objectColumn("symbol", trade -> trade.symbol);
+        return new ColumnarList<>(schema);
+    }
+
+    @Test
+    public void testColumnsAndRows(){
+        ColumnarList<Trade> test = trades();
+        for (int i = 0; i < 1000; i++) test.add(new Trade(i, 1000L + i, i * 0.5, i % 2 == 0 ? "A" : "B"));
+        assertEquals(499500, test.ints("id").sum());
+        assertEquals(499.5, test.doubles("price").max(), 0.0);
+        IntArrayList expensive = test.whereDouble("price", price -> price >= 400);
+        assertEquals(200, expensive.size());
+        assertEquals(800, expensive.get(0));
+        Trade trade = test.get(7);
+        assertEquals(1007L, trade.time);
+        assertEquals("B", trade.symbol);
+        assertEquals(7, test.indexOf(trade));
+        test.removeAt(7);
+        assertEquals(999, test.size());
+        assertEquals(8, test.row(7).getInt("id"));
+        assertEquals(-1, test.indexOf(trade));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testUnknownColumn(){
+        trades().ints("volume");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongColumnType(){
+        trades().longs("id");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSchemaFrozenByList(){
+        ColumnarList.Schema<Trade> schema = new ColumnarList.Schema<Trade>(row -> new Trade(row.getInt("id"),
+                0L, 0.0, null)).intColumn("id", trade -> trade.id);
+        new ColumnarList<>(schema);
+        schema.intColumn("volume", trade -> 0);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.ConcurrentHashMap;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestConcurrentHashMap {
+    @Test
+    public void testPutGetRemove(){
+        ConcurrentHashMap<Integer, Integer> test = new ConcurrentHashMap<>(key -> key);
+        for (int i = 0; i < 1000; i++) test.put(i, i);
+        for (int i = 0; i < 1000; i += 2) test.remove(i);
+        assertEquals(500, test.size());
+        assertEquals(Integer.valueOf(7), test.get(7));
+        assertNull(test.putIfAbsent(8, 80));
+        assertEquals(Integer.valueOf(80), test.putIfAbsent(8, 81));
+        assertEquals(501, test.keys().size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveMissing(){
+        ConcurrentHashMap<Integer, Integer> test = new ConcurrentHashMap<>(key -> key);
+        test.remove(3);
+    }
+
+    @Test
+    public void testConcurrentMerge() throws InterruptedException {
+        ConcurrentHashMap<Integer, Integer> test = new ConcurrentHashMap<>(key -> key, 2);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) test.merge(i % 5000, 1, Integer::sum);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(5000, test.size());
+        for (int i = 0; i < 5000; i++) assertEquals(Integer.valueOf(32), test.get(i));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.DaryHeap;
+import com.ccampana.datastructures.IndexedDaryHeap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestDaryHeap {
+    @Test
+    public void testDequeueInOrder(){
+        Random random = new Random(7);
+        Integer[] values = new Integer[1000];
+        for (int i = 0; i < values.length; i++) values[i] = random.nextInt(500);
+        for (int arity = 2; arity <= 5; arity++) {
+            DaryHeap<Integer> test = new DaryHeap<>(arity, Comparator.naturalOrder());
+            for (Integer value : values) test.enqueue(value);
+            DaryHeap<Integer> built = new DaryHeap<>(values, arity, Comparator.naturalOrder());
+            built.enqueueAll(new Integer[]{-1, 600});
+            Integer[] sorted = values.clone();
+            Arrays.sort(sorted);
+            assertEquals(Integer.valueOf(-1), built.dequeue());
+            for (Integer value : sorted) {
+                assertEquals(value, test.dequeue());
+                assertEquals(value, built.dequeue());
+            }
+            assertEquals(Integer.valueOf(600), built.peek());
+            assertTrue(test.isEmpty());
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testDequeueEmpty(){
+        new DaryHeap<Integer>(Comparator.naturalOrder()).dequeue();
+    }
+
+    @Test
+    public void testIndexedHeap(){
+        IndexedDaryHeap<Integer> test = new IndexedDaryHeap<>(Comparator.naturalOrder());
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        IndexedDaryHeap.Handle<Integer>[] handles = new IndexedDaryHeap.Handle[100];
+        for (int i = 0; i < handles.length; i++) handles[i] = test.add(1000 + i);
+        test.decreaseKey(handles[70], 5);
+        test.decreaseKey(handles[30], 7);
+        assertEquals(Integer.valueOf(1050), test.remove(handles[50]));
+        assertFalse(test.contains(handles[50]));
+        assertEquals(Integer.valueOf(5), test.dequeue());
+        assertFalse(test.contains(handles[70]));
+        assertEquals(Integer.valueOf(7), test.peek());
+        assertEquals(98, test.size());
+        int previous = Integer.MIN_VALUE;
+        while (!test.isEmpty()) {
+            int value = test.dequeue();
+            assertTrue(value >= previous);
+            previous = value;
+        }
+        assertFalse(test.contains(handles[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncreaseKeyRejected(){
+        IndexedDaryHeap<Integer> test = new IndexedDaryHeap<>(Comparator.naturalOrder());
+        test.decreaseKey(test.add(3), 4);
+    }
+}
@@ -0,0 +1,127 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.HashCodes;
+import com.ccampana.datastructures.HashMap;
+
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.*;
+
+public class TestHashMap {
+    @Test
+    public void testRobinHoodPutAndGet(){
+        HashMap<Integer, Integer> test = new HashMap<>(key -> key, 0.75, HashMap.Probing.ROBIN_HOOD);
+        for (int i = 0; i < 1000; i++) test.put(i, i * 2);
+        test.put(7, 70);
+        assertEquals(1000, test.size());
+        assertEquals(Integer.valueOf(70), test.get(7));
+        assertEquals(Integer.valueOf(1998), test.get(999));
+    }
+
+    @Test
+    public void testRobinHoodCollisions(){
+        HashMap<Integer, Integer> test = new HashMap<>(key -> key % 3, 0.9, HashMap.Probing.ROBIN_HOOD);
+        for (int i = 0; i < 200; i++) test.put(i, i);
+        for (int i = 0; i < 200; i += 2) test.remove(i);
+        assertEquals(100, test.size());
+        for (int i = 1; i < 200; i += 2) assertEquals(Integer.valueOf(i), test.get(i));
+        assertEquals(100, test.keys().size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRobinHoodRemoved(){
+        HashMap<Integer, Integer> test = new HashMap<>(key -> key, 0.75, HashMap.Probing.ROBIN_HOOD);
+        test.put(-5, 1);
+        test.remove(-5);
+        test.get(-5);
+    }
+
+    @Test
+    public void testChainingPutGetRemove(){
+        HashMap<Integer, Integer> test = new HashMap<>(key -> key);
+        for (int i = 0; i < 500; i++) test.put(i, i);
+        for (int i = 0; i < 500; i += 5) test.remove(i);
+        test.put(1, 10);
+        assertEquals(400, test.size());
+        assertEquals(Integer.valueOf(10), test.get(1));
+        assertEquals(400, test.values().size());
+    }
+
+    @Test
+    public void testIncrementalResize(){
+        HashMap<Integer, Integer> test = new HashMap<>(key -> key, 0.75, HashMap.Resizing.INCREMENTAL);
+        for (int i = 0; i < 5000; i++) {
+            test.put(i, i);
+            if ((i / 2) % 7 != 0) assertEquals(Integer.valueOf(i / 2), test.get(i / 2));
+            if (i % 7 == 0) test.remove(i);
+        }
+        assertEquals(5000 - 715, test.size());
+        assertEquals(5000 - 715, test.keys().size());
+        for (int i = 1; i < 5000; i += 7) assertEquals(Integer.valueOf(i), test.get(i));
+    }
+
+    @Test
+    public void testBulkOperations(){
+        for (HashMap.Probing probing : HashMap.Probing.values()) {
+            HashMap<Integer, Integer> test = new HashMap<>(key -> key % 50, 0.75, probing);
+            for (int i = 0; i < 1000; i++) test.put(i, i);
+            assertEquals(500, test.removeIf((key, value) -> value % 2 == 0));
+            long[] sum = new long[1];
+            test.forEach((key, value) -> sum[0] += value);
+            assertEquals(250000, sum[0]);
+
+            HashMap<Integer, Integer> other = new HashMap<>(key -> key);
+            for (int i = 0; i < 10; i++) other.put(i, -i);
+            test.putAll(other);
+            assertEquals(505, test.size());
+
+            Integer[] keys = {2, 3, 2000, 999};
+            Integer[] values = new Integer[keys.length];
+            assertEquals(3, test.getAll(keys, values));
+            assertArrayEquals(new Integer[]{-2, -3, null, 999}, values);
+        }
+    }
+
+    @Test
+    public void testStreams(){
+        HashMap<Integer, Integer> robinHood = new HashMap<>(key -> key, 0.75, HashMap.Probing.ROBIN_HOOD);
+        HashMap<Integer, Integer> incremental = new HashMap<>(key -> key, 0.75, HashMap.Resizing.INCREMENTAL);
+        for (int i = 0; i < 5000; i++) {
+            robinHood.put(i, i);
+            incremental.put(i, i);
+        }
+        long expected = 4999L * 5000 / 2;
+        assertEquals(expected, robinHood.parallelStream().mapToLong(entry -> entry.getValue()).sum());
+        assertEquals(expected, incremental.parallelStream().mapToLong(entry -> entry.getKey()).sum());
+        assertEquals(5000, incremental.stream().count());
+        assertEquals(5000, StreamSupport.stream(robinHood.keySpliterator(), true).distinct().count());
+        assertEquals(5000, robinHood.valueSpliterator().estimateSize());
+        assertTrue(robinHood.entrySpliterator().hasCharacteristics(Spliterator.SIZED));
+    }
+
+    @Test
+    public void testNegativeAndBuiltInHashes(){
+        HashMap<Integer, Integer> negative = new HashMap<>(key -> -key);
+        for (int i = 0; i < 1000; i++) negative.put(i, i);
+        assertEquals(Integer.valueOf(999), negative.get(999));
+        HashMap<byte[], String> bytes = new HashMap<>(HashCodes.BYTE_ARRAY, 0.75, HashMap.Probing.ROBIN_HOOD);
+        byte[] key = {1, 2, 3, 4, 5, 6, 7};
+        bytes.put(key, "seven");
+        assertEquals("seven", bytes.get(key));
+        assertEquals(HashCodes.BYTE_ARRAY.hashCode(new byte[]{1, 2, 3, 4, 5, 6, 7}), HashCodes.BYTE_ARRAY.hashCode(key));
+        assertNotEquals(HashCodes.BYTE_ARRAY.hashCode(new byte[]{1, 2, 3}), HashCodes.BYTE_ARRAY.hashCode(new byte[]{3, 2, 1}));
+        HashMap<byte[], String> chained = new HashMap<>(HashCodes.BYTE_ARRAY);
+        chained.put(new byte[]{9, 8}, "first");
+        chained.put(new byte[]{9, 8}, "second");
+        assertEquals(1, chained.size());
+        assertTrue(bytes.containsKey(new byte[]{1, 2, 3, 4, 5, 6, 7}));
+        assertEquals("seven", bytes.get(new byte[]{1, 2, 3, 4, 5, 6, 7}));
+        assertEquals("second", chained.get(new byte[]{9, 8}));
+        HashMap<String, Long> strings = new HashMap<>(HashCodes.STRING, 0.75, HashMap.Resizing.INCREMENTAL);
+        for (long i = 0; i < 500; i++) strings.put("key" + i, i);
+        assertEquals(Long.valueOf(321), strings.get("key321"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.ccampana.datastructure.test;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.ccampana.datastructures.Codecs;
+import com.ccampana.datastructures.OffHeapHashMap;
+import com.ccampana.datastructures.PersistentHashMap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestOffHeapHashMap {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutGetRemove(){
+        OffHeapHashMap<String, Integer> test = new OffHeapHashMap<>(String::hashCode, Codecs.STRING, Codecs.INTEGER, 4096);
+        for (int i = 0; i < 2000; i++) test.put("key" + i, i);
+        for (int i = 0; i < 2000; i += 2) test.remove("key" + i);
+        for (int i = 1; i < 2000; i += 2) test.put("key" + i, -i);
+        assertEquals(1000, test.size());
+        assertEquals(Integer.valueOf(-7), test.get("key7"));
+        assertFalse(test.containsKey("key8"));
+        assertEquals(1000, test.keys().size());
+    }
+
+    @Test
+    public void testCompact(){
+        OffHeapHashMap<Long, String> test = new OffHeapHashMap<>(key -> Long.hashCode(key), Codecs.LONG, Codecs.STRING, 256);
+        for (long i = 0; i < 100; i++) test.put(i, "value-" + i);
+        for (int round = 0; round < 20; round++) {
+            for (long i = 0; i < 100; i++) test.put(i, "v" + round + "-" + i);
+        }
+        test.compact();
+        assertEquals("v19-42", test.get(42L));
+        assertEquals(100, test.values().size());
+    }
+
+    @Test
+    public void testEmptyBeforeFirstSlab(){
+        OffHeapHashMap<String, Integer> test = new OffHeapHashMap<>(String::hashCode, Codecs.STRING, Codecs.INTEGER, 256);
+        assertFalse(test.containsKey("key"));
+        test.compact();
+        test.put("key", 1);
+        assertEquals(Integer.valueOf(1), test.get("key"));
+        test.clear();
+        assertEquals(0, test.size());
+        test.put("key", 2);
+        assertEquals(Integer.valueOf(2), test.get("key"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMissing(){
+        OffHeapHashMap<String, String> test = new OffHeapHashMap<>(String::hashCode, Codecs.STRING, Codecs.STRING);
+        test.put("a", "b");
+        test.get("b");
+    }
+
+    @Test
+    public void testPersistentReopen() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("map");
+        try (PersistentHashMap<String, Long> test = new PersistentHashMap<>(directory, String::hashCode, Codecs.STRING, Codecs.LONG, 1024)) {
+            for (long i = 0; i < 500; i++) test.put("key" + i, i);
+            test.remove("key3");
+            test.compact();
+        }
+        Path copy = folder.getRoot().toPath().resolve("copy");
+        try (PersistentHashMap<String, Long> test = new PersistentHashMap<>(directory, String::hashCode, Codecs.STRING, Codecs.LONG)) {
+            assertEquals(499, test.size());
+            assertEquals(Long.valueOf(42), test.get("key42"));
+            assertFalse(test.containsKey("key3"));
+            test.put("key3", 3L);
+            test.snapshot(copy);
+        }
+        try (PersistentHashMap<String, Long> test = new PersistentHashMap<>(copy, String::hashCode, Codecs.STRING, Codecs.LONG)) {
+            assertEquals(500, test.size());
+            assertEquals(Long.valueOf(3), test.get("key3"));
+        }
+    }
+
+    @Test
+    public void testPersistentReopensLastSync() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("crash");
+        PersistentHashMap<String, Long> crashed = new PersistentHashMap<>(directory, String::hashCode, Codecs.STRING, Codecs.LONG, 1024);
+        for (long i = 0; i < 200; i++) crashed.put("key" + i, i);
+        crashed.sync();
+        long slabFiles;
+        try (var files = Files.list(directory)) {
+            slabFiles = files.filter(file -> file.getFileName().toString().startsWith("slab-")).count();
+        }
+        // changes after the sync, including growth, compaction and clear, are never synced
+        for (long i = 0; i < 2000; i++) crashed.put("other" + i, i);
+        for (long i = 0; i < 200; i += 2) crashed.remove("key" + i);
+        crashed.compact();
+        crashed.clear();
+        crashed.put("key1", -1L);
+        try (PersistentHashMap<String, Long> test = new PersistentHashMap<>(directory, String::hashCode, Codecs.STRING, Codecs.LONG)) {
+            assertEquals(200, test.size());
+            assertEquals(Long.valueOf(1), test.get("key1"));
+            assertEquals(Long.valueOf(198), test.get("key198"));
+            assertFalse(test.containsKey("other0"));
+            try (var files = Files.list(directory)) {
+                assertEquals(slabFiles, files.filter(file -> file.getFileName().toString().startsWith("slab-")).count());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.PersistentVector;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestPersistentVector {
+    @Test
+    public void testVersions(){
+        PersistentVector<Integer> vector = new PersistentVector<>();
+        PersistentVector<Integer> half = null;
+        for (int i = 0; i < 5000; i++) {
+            vector = vector.append(i);
+            if (i == 2499) half = vector;
+        }
+        assertEquals(5000, vector.size());
+        assertEquals(2500, half.size());
+        PersistentVector<Integer> changed = vector.set(1234, -1);
+        assertEquals(Integer.valueOf(1234), vector.get(1234));
+        assertEquals(Integer.valueOf(-1), changed.get(1234));
+        assertEquals(4999, vector.indexOf(4999));
+        PersistentVector<Integer> popped = vector;
+        for (int i = 0; i < 4000; i++) popped = popped.pop();
+        assertEquals(1000, popped.size());
+        for (int i = 0; i < 1000; i++) assertEquals(Integer.valueOf(i), popped.get(i));
+        assertEquals(Integer.valueOf(4999), vector.get(4999));
+    }
+
+    @Test
+    public void testBuilderSnapshots(){
+        PersistentVector.Builder<Integer> builder = PersistentVector.builder();
+        for (int i = 0; i < 3000; i++) builder.add(i);
+        PersistentVector<Integer> first = builder.snapshot();
+        builder.set(10, -10);
+        builder.set(2999, -2999);
+        for (int i = 3000; i < 4000; i++) builder.add(i);
+        PersistentVector<Integer> second = builder.snapshot();
+        assertEquals(3000, first.size());
+        assertEquals(Integer.valueOf(10), first.get(10));
+        assertEquals(Integer.valueOf(2999), first.get(2999));
+        assertEquals(Integer.valueOf(-10), second.get(10));
+        assertEquals(Integer.valueOf(3999), second.get(3999));
+        PersistentVector<Integer> third = second.toBuilder().snapshot().append(4000);
+        assertEquals(4001, third.size());
+        assertEquals(4000, second.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable(){
+        new PersistentVector<Integer>().add(1);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testGetOutOfRange(){
+        new PersistentVector<Integer>().append(1).get(1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.IntIntHashMap;
+import com.ccampana.datastructures.LongObjectHashMap;
+import com.ccampana.datastructures.ObjectIntHashMap;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestPrimitiveHashMaps {
+    @Test
+    public void testIntInt(){
+        IntIntHashMap test = new IntIntHashMap(key -> key * 31);
+        for (int i = -500; i < 500; i++) test.put(i, i * 2);
+        for (int i = -500; i < 500; i += 3) test.remove(i);
+        assertEquals(666, test.size());
+        assertEquals(666, test.keys().length);
+        for (int i = -499; i < 500; i += 3) assertEquals(i * 2, test.get(i));
+        assertEquals(-1, test.getOrDefault(-500, -1));
+        assertEquals(5, test.addTo(0, 5));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testIntIntMissing(){
+        IntIntHashMap test = new IntIntHashMap(key -> key);
+        test.put(0, 1);
+        test.remove(0);
+        test.get(0);
+    }
+
+    @Test
+    public void testLongObject(){
+        LongObjectHashMap<String> test = new LongObjectHashMap<>(key -> (int) (key ^ (key >>> 32)));
+        for (long i = 0; i < 1000; i++) test.put(i << 32, "v" + i);
+        test.remove(0);
+        assertEquals(999, test.size());
+        assertEquals("v7", test.get(7L << 32));
+        assertFalse(test.containsKey(0));
+        assertEquals(999, test.values().size());
+    }
+
+    @Test
+    public void testObjectInt(){
+        ObjectIntHashMap<String> test = new ObjectIntHashMap<>(String::length);
+        for (int i = 0; i < 300; i++) test.addTo("k" + (i % 100), 1);
+        test.remove("k5");
+        assertEquals(99, test.size());
+        assertEquals(3, test.get("k42"));
+        assertEquals(0, test.getOrDefault("k5", 0));
+    }
+}
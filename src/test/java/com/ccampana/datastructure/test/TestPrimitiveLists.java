@@ -0,0 +1,77 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.DoubleArrayList;
+import com.ccampana.datastructures.IntArrayList;
+import com.ccampana.datastructures.LongArrayList;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+
+public class TestPrimitiveLists {
+    @Test
+    public void testIntArrayList(){
+        IntArrayList test = new IntArrayList();
+        for (int i = 0; i < 100; i++) test.add(i);
+        test.addAll(new int[]{-5, 200});
+        assertEquals(102, test.size());
+        assertEquals(-5, test.min());
+        assertEquals(200, test.max());
+        assertEquals(4950 + 195, test.sum());
+        test.remove(50);
+        assertEquals(51, test.get(50));
+        assertEquals(100, test.indexOf(200));
+        assertArrayEquals(new int[]{0, 1, 2}, java.util.Arrays.copyOf(test.toArray(), 3));
+        assertSame(test.array(), test.array());
+    }
+
+    @Test
+    public void testLongAndDoubleArrayLists(){
+        LongArrayList longs = new LongArrayList(new long[]{3L << 40, 7, -1});
+        longs.add(9);
+        assertEquals((3L << 40) + 15, longs.sum());
+        assertEquals(-1, longs.min());
+        DoubleArrayList doubles = new DoubleArrayList();
+        doubles.addAll(new double[]{0.5, 1.5, Double.NaN});
+        assertEquals(2, doubles.indexOf(Double.NaN));
+        assertTrue(Double.isNaN(doubles.max()));
+        doubles.remove(Double.NaN);
+        assertEquals(2.0, doubles.sum(), 0.0);
+        assertEquals(1.5, doubles.max(), 0.0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testEmptyMin(){
+        new IntArrayList().min();
+    }
+
+    @Test
+    public void testSearchesAndReductions(){
+        IntArrayList ints = new IntArrayList();
+        LongArrayList longs = new LongArrayList();
+        DoubleArrayList doubles = new DoubleArrayList();
+        for (int i = 0; i < 1003; i++) {
+            ints.add(Integer.MAX_VALUE - i);
+            longs.add(-i);
+            doubles.add(i % 10 == 0 ? -0.0 : i * 0.25);
+        }
+        long expected = 1003L * Integer.MAX_VALUE - 1002L * 1003 / 2;
+        assertEquals(expected, ints.sum());
+        assertEquals(Integer.MAX_VALUE - 1002, ints.min());
+        assertEquals(1001, ints.indexOf(Integer.MAX_VALUE - 1001));
+        assertEquals(1, ints.count(Integer.MAX_VALUE));
+        assertFalse(ints.contains(0));
+        assertEquals(-1002, longs.min());
+        assertEquals(0, longs.max());
+        assertEquals(-1002L * 1003 / 2, longs.sum());
+        assertEquals(1002, longs.indexOf(-1002));
+        assertEquals(101, doubles.count(-0.0));
+        assertEquals(-1, doubles.indexOf(0.0));
+        assertEquals(3, doubles.indexOf(0.75));
+        assertEquals(-0.0, doubles.min(), 0.0);
+        assertEquals(250.5, doubles.max(), 0.0);
+        doubles.add(Double.NaN);
+        assertTrue(doubles.contains(Double.NaN));
+    }
+}
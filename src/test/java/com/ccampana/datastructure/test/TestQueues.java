@@ -0,0 +1,263 @@
+package com.ccampana.datastructure.test;
+import org.junit.Test;
+
+import com.ccampana.datastructures.ArrayBlockingQueue;
+import com.ccampana.datastructures.ArrayList;
+import com.ccampana.datastructures.ArrayQueue;
+import com.ccampana.datastructures.MpmcArrayQueue;
+import com.ccampana.datastructures.MpscArrayQueue;
+import com.ccampana.datastructures.SpscArrayQueue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class TestQueues {
+    @Test
+    public void testArrayQueueWrapsAndGrows(){
+        ArrayQueue<Integer> test = new ArrayQueue<>(new Integer[]{0, 1, 2});
+        int next = 3;
+        int expected = 0;
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 7; i++) test.enqueue(next++);
+            for (int i = 0; i < 5; i++) assertEquals(Integer.valueOf(expected++), test.dequeue());
+        }
+        assertEquals(next - expected, test.size());
+        assertEquals(Integer.valueOf(expected), test.peek());
+        while (!test.isEmpty()) assertEquals(Integer.valueOf(expected++), test.dequeue());
+        assertEquals(next, expected);
+        test.enqueue(null);
+        assertNull(test.dequeue());
+        assertEquals("[]", test.toString());
+    }
+
+    @Test
+    public void testBatches(){
+        ArrayQueue<Integer> queue = new ArrayQueue<>();
+        ArrayBlockingQueue<Integer> blocking = new ArrayBlockingQueue<>(8);
+        MpmcArrayQueue<Integer> mpmc = new MpmcArrayQueue<>(8);
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(-1);
+            queue.dequeue();
+            blocking.enqueue(-1);
+            blocking.dequeue();
+        }
+        Integer[] batch = {0, 1, 2, 3, 4, 5};
+        queue.enqueueAll(batch);
+        queue.enqueueAll(new ArrayList<>(new Integer[]{6, 7, 8, 9, 10, 11}));
+        blocking.enqueueAll(batch);
+        mpmc.enqueueAll(batch);
+        assertEquals(12, queue.size());
+        assertEquals("[0 1 2 3 4 5 ]", blocking.toString());
+
+        Integer[] out = new Integer[4];
+        assertEquals(4, queue.dequeueBatch(out));
+        assertArrayEquals(new Integer[]{0, 1, 2, 3}, out);
+        assertEquals(4, blocking.dequeueBatch(out));
+        assertArrayEquals(new Integer[]{0, 1, 2, 3}, out);
+        assertEquals(4, mpmc.dequeueBatch(out));
+
+        java.util.List<Integer> drained = new java.util.ArrayList<>();
+        assertEquals(5, queue.drainTo(drained, 5));
+        assertEquals(2, blocking.drainTo(drained, 5));
+        assertEquals(2, mpmc.drainTo(drained, 5));
+        assertEquals(java.util.List.of(4, 5, 6, 7, 8, 4, 5, 4, 5), drained);
+        assertEquals(Integer.valueOf(9), queue.peek());
+        assertEquals(3, queue.dequeueBatch(out));
+        assertTrue(queue.isEmpty());
+        assertTrue(blocking.isEmpty());
+    }
+
+    @Test
+    public void testBatchFromListWithHoles(){
+        ArrayList<Integer> holey = new ArrayList<>(new Integer[]{1, 2, 3});
+        holey.removeAt(0);
+        ArrayQueue<Integer> queue = new ArrayQueue<>();
+        ArrayBlockingQueue<Integer> blocking = new ArrayBlockingQueue<>(4);
+        queue.enqueueAll(holey);
+        blocking.enqueueAll(holey);
+        assertEquals("[2 3 ]", queue.toString());
+        assertEquals("[2 3 ]", blocking.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBlockingQueueBatchTooLarge(){
+        ArrayBlockingQueue<Integer> test = new ArrayBlockingQueue<>(4);
+        test.enqueue(0);
+        try {
+            test.enqueueAll(new Integer[]{1, 2, 3, 4});
+        } finally {
+            assertEquals(1, test.size());
+        }
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testArrayQueuePeekEmpty(){
+        new ArrayQueue<Integer>().peek();
+    }
+
+    @Test
+    public void testBlockingQueueBounds() throws InterruptedException {
+        ArrayBlockingQueue<Integer> test = new ArrayBlockingQueue<>(3);
+        for (int i = 0; i < 3; i++) test.enqueue(i);
+        assertFalse(test.offer(3));
+        assertFalse(test.offer(3, 10, TimeUnit.MILLISECONDS));
+        assertEquals(0, test.remainingCapacity());
+        assertEquals(Integer.valueOf(0), test.dequeue());
+        test.enqueue(3);
+        assertEquals("[1 2 3 ]", test.toString());
+        for (int i = 1; i <= 3; i++) assertEquals(Integer.valueOf(i), test.take());
+        assertNull(test.poll());
+        assertNull(test.poll(10, TimeUnit.MILLISECONDS));
+        assertTrue(test.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBlockingQueueFull(){
+        ArrayBlockingQueue<Integer> test = new ArrayBlockingQueue<>(1);
+        test.enqueue(1);
+        test.enqueue(2);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testBlockingQueueEmpty(){
+        new ArrayBlockingQueue<Integer>().dequeue();
+    }
+
+    @Test
+    public void testBlockingQueueProducersConsumers() throws InterruptedException {
+        ArrayBlockingQueue<Integer> test = new ArrayBlockingQueue<>(8);
+        AtomicLong sum = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            boolean producer = t % 2 == 0;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = 1; i <= 10000; i++) {
+                        if (producer) test.put(i);
+                        else sum.addAndGet(test.take());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(4L * 10000 * 10001 / 2, sum.get());
+        assertTrue(test.isEmpty());
+    }
+
+    @Test
+    public void testRingBufferQueueBatchTooLarge(){
+        MpmcArrayQueue<Integer> test = new MpmcArrayQueue<>(4);
+        test.enqueue(0);
+        assertEquals(2, test.offerAll(new Integer[]{1, 2}));
+        assertEquals(1, test.offerAll(new Integer[]{3, 4}));
+        test.clear();
+        test.enqueue(0);
+        try {
+            test.enqueueAll(new Integer[]{1, 2, 3, 4});
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(4, test.size());
+            assertEquals(Integer.valueOf(0), test.dequeue());
+        }
+    }
+
+    @Test
+    public void testRingBufferQueueBounds(){
+        SpscArrayQueue<Integer> spsc = new SpscArrayQueue<>(3);
+        MpscArrayQueue<Integer> mpsc = new MpscArrayQueue<>(3);
+        MpmcArrayQueue<Integer> mpmc = new MpmcArrayQueue<>(3);
+        assertEquals(4, spsc.capacity());
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(spsc.offer(i));
+                assertTrue(mpsc.offer(i));
+                assertTrue(mpmc.offer(i));
+            }
+            assertFalse(spsc.offer(4));
+            assertFalse(mpsc.offer(4));
+            assertFalse(mpmc.offer(4));
+            assertEquals(4, mpmc.size());
+            assertEquals(Integer.valueOf(0), mpsc.peek());
+            assertEquals(Integer.valueOf(0), mpmc.peek());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(Integer.valueOf(i), spsc.dequeue());
+                assertEquals(Integer.valueOf(i), mpsc.dequeue());
+                assertEquals(Integer.valueOf(i), mpmc.dequeue());
+            }
+            assertNull(spsc.poll());
+            assertNull(mpsc.poll());
+            assertNull(mpmc.poll());
+            assertTrue(mpmc.isEmpty());
+        }
+    }
+
+    @Test
+    public void testSpscOrder() throws InterruptedException {
+        SpscArrayQueue<Integer> test = new SpscArrayQueue<>(64);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20000; i++) {
+                while (!test.offer(i)) Thread.yield();
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 20000; i++) {
+            Integer element;
+            while ((element = test.poll()) == null) Thread.yield();
+            assertEquals(i, element.intValue());
+        }
+        producer.join();
+    }
+
+    @Test
+    public void testMpscAndMpmcHandOffs() throws InterruptedException {
+        MpscArrayQueue<Integer> mpsc = new MpscArrayQueue<>(64);
+        Thread[] producers = startProducers(mpsc::offer, 4, 5000);
+        long sum = 0;
+        for (int i = 0; i < 4 * 5000; i++) {
+            Integer element;
+            while ((element = mpsc.poll()) == null) Thread.yield();
+            sum += element;
+        }
+        for (Thread thread : producers) thread.join();
+        assertEquals(4L * 5000 * 5001 / 2, sum);
+
+        MpmcArrayQueue<Integer> mpmc = new MpmcArrayQueue<>(64);
+        AtomicLong total = new AtomicLong();
+        producers = startProducers(mpmc::offer, 4, 5000);
+        Thread[] consumers = new Thread[4];
+        for (int t = 0; t < consumers.length; t++) {
+            consumers[t] = new Thread(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    Integer element;
+                    while ((element = mpmc.poll()) == null) Thread.yield();
+                    total.addAndGet(element);
+                }
+            });
+            consumers[t].start();
+        }
+        for (Thread thread : producers) thread.join();
+        for (Thread thread : consumers) thread.join();
+        assertEquals(4L * 5000 * 5001 / 2, total.get());
+        assertTrue(mpmc.isEmpty());
+    }
+
+    private static Thread[] startProducers(Predicate<Integer> offer, int count, int elements) {
+        Thread[] threads = new Thread[count];
+        for (int t = 0; t < count; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= elements; i++) {
+                    while (!offer.test(i)) Thread.yield();
+                }
+            });
+            threads[t].start();
+        }
+        return threads;
+    }
+}